@@ -0,0 +1,149 @@
+package io.github.jeandemanged.aoc2023.day1;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+// calibration sums straight from the bytes of a memory-mapped file, whatever its size
+public class Calibration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Calibration.class);
+
+    // a mapping can't exceed 2 GB, big files are mapped window by window, each window ending on a line end
+    static final long WINDOW_SIZE = 1L << 30;
+
+    // value of line [from, to) of the buffer, -1 if it has none
+    interface LineExtractor {
+        int extract(ByteBuffer buffer, int from, int to);
+    }
+
+    // part 1
+    static int digits(ByteBuffer buffer, int from, int to) {
+        int first = -1;
+        int last = -1;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit >= 0 && digit <= 9) {
+                if (first < 0) {
+                    first = digit;
+                }
+                last = digit;
+            }
+        }
+        return first < 0 ? -1 : 10 * first + last;
+    }
+
+    static long sum(Path path, LineExtractor extractor) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return sum(channel, 0, channel.size(), extractor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static long sumParallel(Path path, LineExtractor extractor) {
+        return sumParallel(path, extractor, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    // lines are independent: file cut in chunks starting right after a line end, each chunk summed on a fork-join worker
+    static long sumParallel(Path path, LineExtractor extractor, int chunks) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel, chunks);
+            return IntStream.range(0, chunks).parallel().mapToLong(i -> {
+                try {
+                    return sum(channel, bounds[i], bounds[i + 1], extractor);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static long[] chunkBounds(FileChannel channel, int chunks) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[chunks + 1];
+        bounds[chunks] = size;
+        for (int i = 1; i < chunks; i++) {
+            bounds[i] = nextLineStart(channel, Math.max(bounds[i - 1], size / chunks * i), size);
+        }
+        return bounds;
+    }
+
+    // first line start at or after position
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        var buffer = ByteBuffer.allocate(8192);
+        long current = position - 1;
+        while (current < size) {
+            buffer.clear();
+            int read = channel.read(buffer, current);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return current + i + 1;
+                }
+            }
+            current += Math.max(read, 1);
+        }
+        return size;
+    }
+
+    // sum of the lines in [start, end) of the file, start being a line start
+    static long sum(FileChannel channel, long start, long end, LineExtractor extractor) throws IOException {
+        long sum = 0;
+        long position = start;
+        while (position < end) {
+            long size = Math.min(WINDOW_SIZE, end - position);
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            int limit = (int) size;
+            if (position + size < end) {
+                // the line cut at the end of the window is left to the next one
+                while (limit > 0 && buffer.get(limit - 1) != '\n') {
+                    limit--;
+                }
+                if (limit == 0) {
+                    throw new IllegalStateException("Line longer than " + WINDOW_SIZE + " bytes at " + position);
+                }
+            }
+            int lineStart = 0;
+            for (int i = 0; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    sum += lineValue(extractor, buffer, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < limit) {
+                // last line without line end
+                sum += lineValue(extractor, buffer, lineStart, limit);
+            }
+            position += limit;
+        }
+        return sum;
+    }
+
+    private static int lineValue(LineExtractor extractor, ByteBuffer buffer, int from, int to) {
+        int value = extractor.extract(buffer, from, to);
+        if (value < 0) {
+            LOGGER.debug("No value in line at {}", from);
+            return 0;
+        }
+        return value;
+    }
+
+    public static void main(String[] args) {
+        var path = Paths.get("data", "day1.txt");
+        LOGGER.info("Day1 Part 1: {}", sumParallel(path, Calibration::digits));
+        LOGGER.info("Day1 Part 2: {}", sumParallel(path, DigitScanner.english()::scan));
+    }
+}
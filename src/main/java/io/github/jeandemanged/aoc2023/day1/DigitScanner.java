@@ -0,0 +1,145 @@
+package io.github.jeandemanged.aoc2023.day1;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+// Aho-Corasick automaton over the bytes of digit tokens: a single pass over a line finds its first and last token
+final class DigitScanner {
+
+    private static final int ALPHABET = 256;
+
+    // full transition table, state * ALPHABET + byte -> next state
+    private final int[] transitions;
+    // tokens ending in a state, itself or through its suffix links:
+    // the longest one starts the earliest, the shortest one the latest
+    private final int[] longestLength;
+    private final int[] longestValue;
+    private final int[] shortestLength;
+    private final int[] shortestValue;
+
+    private DigitScanner(int[] transitions, int[] longestLength, int[] longestValue, int[] shortestLength, int[] shortestValue) {
+        this.transitions = transitions;
+        this.longestLength = longestLength;
+        this.longestValue = longestValue;
+        this.shortestLength = shortestLength;
+        this.shortestValue = shortestValue;
+    }
+
+    static DigitScanner english() {
+        Map<String, Integer> vocabulary = new HashMap<>();
+        String[] words = {"one", "two", "three", "four", "five", "six", "seven", "eight", "nine"};
+        for (int i = 1; i <= 9; i++) {
+            vocabulary.put(String.valueOf(i), i);
+            vocabulary.put(words[i - 1], i);
+        }
+        return compile(vocabulary);
+    }
+
+    static DigitScanner compile(Map<String, Integer> vocabulary) {
+        int maxStates = 1 + vocabulary.keySet().stream().mapToInt(token -> token.getBytes(StandardCharsets.UTF_8).length).sum();
+        int[] transitions = new int[maxStates * ALPHABET];
+        Arrays.fill(transitions, -1);
+        int[] longestLength = new int[maxStates];
+        int[] longestValue = new int[maxStates];
+        int[] shortestLength = new int[maxStates];
+        int[] shortestValue = new int[maxStates];
+
+        // trie
+        int states = 1;
+        for (var entry : vocabulary.entrySet()) {
+            byte[] token = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            int value = entry.getValue();
+            if (token.length == 0 || value < 0 || value > 9) {
+                throw new IllegalArgumentException("Invalid token '" + entry.getKey() + "' -> " + value);
+            }
+            int state = 0;
+            for (byte b : token) {
+                int t = state * ALPHABET + (b & 0xFF);
+                if (transitions[t] < 0) {
+                    transitions[t] = states++;
+                }
+                state = transitions[t];
+            }
+            longestLength[state] = token.length;
+            longestValue[state] = value;
+            shortestLength[state] = token.length;
+            shortestValue[state] = value;
+        }
+
+        // suffix links breadth first, completing the transitions and merging the tokens of the suffixes
+        int[] fail = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = transitions[c];
+            if (next < 0) {
+                transitions[c] = 0;
+            } else {
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int suffix = fail[state];
+            if (longestLength[suffix] > longestLength[state]) {
+                longestLength[state] = longestLength[suffix];
+                longestValue[state] = longestValue[suffix];
+            }
+            if (shortestLength[suffix] > 0 && (shortestLength[state] == 0 || shortestLength[suffix] < shortestLength[state])) {
+                shortestLength[state] = shortestLength[suffix];
+                shortestValue[state] = shortestValue[suffix];
+            }
+            for (int c = 0; c < ALPHABET; c++) {
+                int t = state * ALPHABET + c;
+                int next = transitions[t];
+                if (next < 0) {
+                    transitions[t] = transitions[suffix * ALPHABET + c];
+                } else {
+                    fail[next] = transitions[suffix * ALPHABET + c];
+                    queue.add(next);
+                }
+            }
+        }
+        return new DigitScanner(Arrays.copyOf(transitions, states * ALPHABET),
+                Arrays.copyOf(longestLength, states), Arrays.copyOf(longestValue, states),
+                Arrays.copyOf(shortestLength, states), Arrays.copyOf(shortestValue, states));
+    }
+
+    int scan(byte[] line, int from, int to) {
+        return scan(ByteBuffer.wrap(line), from, to);
+    }
+
+    // 10 * first token + last token of buffer[from, to), -1 if there is none
+    int scan(ByteBuffer buffer, int from, int to) {
+        int state = 0;
+        int firstStart = Integer.MAX_VALUE;
+        int first = -1;
+        int lastStart = -1;
+        int last = -1;
+        for (int i = from; i < to; i++) {
+            state = transitions[state * ALPHABET + (buffer.get(i) & 0xFF)];
+            if (longestLength[state] > 0) {
+                int start = i - longestLength[state] + 1;
+                if (start < firstStart) {
+                    firstStart = start;
+                    first = longestValue[state];
+                }
+                int latestStart = i - shortestLength[state] + 1;
+                if (latestStart > lastStart) {
+                    lastStart = latestStart;
+                    last = shortestValue[state];
+                }
+            }
+        }
+        return first < 0 ? -1 : 10 * first + last;
+    }
+
+    int scan(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return scan(bytes, 0, bytes.length);
+    }
+}
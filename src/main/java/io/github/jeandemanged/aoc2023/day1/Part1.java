@@ -14,28 +14,24 @@ public class Part1 {
         var lines = FileUtils.readAllLines(Paths.get("data", "day1.txt"));
         int sum = 0;
         for (String line : lines) {
-            Character first = null;
-            Character last = null;
+            int first = -1;
+            int last = -1;
             for (int i = 0; i < line.length(); i++) {
-                var c = line.charAt(i);
-                if (Character.isDigit(c)) {
-                    if (first == null) {
-                        first = c;
-                        last = c;
-                    } else {
-                        last = c;
+                int digit = line.charAt(i) - '0';
+                if (digit >= 0 && digit <= 9) {
+                    if (first < 0) {
+                        first = digit;
                     }
+                    last = digit;
                 }
             }
-            if (first == null) {
+            if (first < 0) {
                 LOGGER.error("Invalid line '{}'", line);
                 continue;
             }
-            char[] chars = {first, last};
-            String lineValueString = new String(chars);
-            int lineValue = Integer.parseInt(lineValueString);
+            int lineValue = 10 * first + last;
             sum += lineValue;
-            LOGGER.info("'{}' -> first={} last={} value={}", line, first, last, lineValue);
+            LOGGER.debug("'{}' -> first={} last={} value={}", line, first, last, lineValue);
         }
         LOGGER.info("Day1 Part 1: {}", sum);
     }
@@ -6,12 +6,17 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 public class Day10 {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Day10.class);
 
+    static final int NORTH = 1;
+    static final int EAST = 2;
+    static final int SOUTH = 4;
+    static final int WEST = 8;
+
     enum PipeType {
         NS("|"),
         EW("-"),
@@ -39,146 +44,182 @@ public class Day10 {
         }
 
         boolean connectsSouth() {
-            return Objects.equals(this, S) || Objects.equals(this, SE) || Objects.equals(this, SW) || Objects.equals(this, NS);
+            return Objects.equals(this, SE) || Objects.equals(this, SW) || Objects.equals(this, NS);
         }
 
         boolean connectsNorth() {
-            return Objects.equals(this, S) || Objects.equals(this, NE) || Objects.equals(this, NW) || Objects.equals(this, NS);
+            return Objects.equals(this, NE) || Objects.equals(this, NW) || Objects.equals(this, NS);
         }
 
         boolean connectsEast() {
-            return Objects.equals(this, S) || Objects.equals(this, NE) || Objects.equals(this, SE) || Objects.equals(this, EW);
+            return Objects.equals(this, NE) || Objects.equals(this, SE) || Objects.equals(this, EW);
         }
 
         boolean connectsWest() {
-            return Objects.equals(this, S) || Objects.equals(this, NW) || Objects.equals(this, SW) || Objects.equals(this, EW);
+            return Objects.equals(this, NW) || Objects.equals(this, SW) || Objects.equals(this, EW);
+        }
+
+        // connections as NORTH | EAST | SOUTH | WEST bits, none for the starting point which is unknown
+        byte mask() {
+            return (byte) ((connectsNorth() ? NORTH : 0) | (connectsEast() ? EAST : 0)
+                    | (connectsSouth() ? SOUTH : 0) | (connectsWest() ? WEST : 0));
         }
 
     }
 
-    record Pipe(int x, int y, PipeType pipeType) {
-        List<Pipe> getNeightbors(Puzzle puzzle) {
-            List<Pipe> neightbors = new ArrayList<>();
-            final int x = this.x();
-            final int y = this.y();
-            final var t = this.pipeType();
-            final var west = puzzle.pipes()[x - 1][y];
-            final var east = puzzle.pipes()[x + 1][y];
-            final var north = puzzle.pipes()[x][y - 1];
-            final var south = puzzle.pipes()[x][y + 1];
-
-            if (t.connectsWest() && west.pipeType().connectsEast()) {
-                neightbors.add(west);
-            }
-            if (t.connectsEast() && east.pipeType().connectsWest()) {
-                neightbors.add(east);
-            }
-            if (t.connectsNorth() && north.pipeType().connectsSouth()) {
-                neightbors.add(north);
-            }
-            if (t.connectsSouth() && south.pipeType().connectsNorth()) {
-                neightbors.add(south);
-            }
+    // row-major cells holding their connection bits, with a border of ground all around
+    record Grid(int width, int height, byte[] cells, int start) {
+        private static final byte[] MASK_BY_CHAR = buildMaskByChar();
 
-            return neightbors;
+        private static byte[] buildMaskByChar() {
+            byte[] maskByChar = new byte[128];
+            Arrays.fill(maskByChar, (byte) -1);
+            for (PipeType type : PipeType.values()) {
+                maskByChar[type.getType().charAt(0)] = type.mask();
+            }
+            return maskByChar;
         }
-    }
 
-    record Puzzle(int xSize, int ySize, Pipe[][] pipes, Pipe startingPosition) {
-        static Puzzle build(List<String> lines) {
-            int xSize = lines.get(0).length() + 2;
-            int ySize = lines.size() + 2;
-            Pipe[][] pipes = new Pipe[xSize][ySize];
-            Pipe startingPosition = null;
+        static Grid build(List<String> lines) {
+            int width = lines.get(0).length() + 2;
+            int height = lines.size() + 2;
+            byte[] cells = new byte[width * height];
+            int start = -1;
             for (int y = 0; y < lines.size(); y++) {
-                String line = "." + lines.get(y) + ".";
+                String line = lines.get(y);
+                if (line.length() != width - 2) {
+                    throw new IllegalArgumentException("Line " + y + " has length " + line.length() + ", expected " + (width - 2));
+                }
                 for (int x = 0; x < line.length(); x++) {
-                    var type = PipeType.from(String.valueOf(line.charAt(x)));
-                    var pipe = new Pipe(x, y + 1, type);
-                    if (PipeType.S == type) {
-                        startingPosition = pipe;
+                    char c = line.charAt(x);
+                    byte mask = c < 128 ? MASK_BY_CHAR[c] : -1;
+                    if (mask < 0) {
+                        throw new IllegalArgumentException("oh noes: " + c);
+                    }
+                    int cell = (y + 1) * width + x + 1;
+                    if (c == 'S') {
+                        start = cell;
                     }
-                    pipes[x][y + 1] = pipe;
+                    cells[cell] = mask;
                 }
             }
-            for (int i = 0; i < xSize; i++) {
-                pipes[i][0] = new Pipe(i, 0, PipeType.G);
-                pipes[i][ySize - 1] = new Pipe(i, ySize - 1, PipeType.G);
+            if (start < 0) {
+                throw new IllegalArgumentException("No starting point");
             }
-            return new Puzzle(xSize, ySize, pipes, startingPosition);
-        }
-
-        int findSteps() {
-            int[][] step = new int[this.xSize][this.ySize];
-            List<Pipe> pipeList = new ArrayList<>();
-            Set<Pipe> donePipes = new HashSet<>();
-            pipeList.add(this.startingPosition());
-            boolean done = false;
-            int currentStep = 1;
-            while (!done) {
-                List<Pipe> nextPipeList = new ArrayList<>();
-                for (Pipe pipe : pipeList) {
-                    int x = pipe.x();
-                    int y = pipe.y();
-                    if (step[x][y] == 0) {
-                        step[x][y] = currentStep;
-                    }
-                    donePipes.add(pipe);
-                    nextPipeList.addAll(pipe.getNeightbors(this).stream().filter(Predicate.not(donePipes::contains)).toList());
+            var grid = new Grid(width, height, cells, start);
+            cells[start] = grid.inferStartMask();
+            return grid;
+        }
+
+        // the starting point is the pipe joining two neighbours connecting to it. With more than two,
+        // it is the first pair (in NORTH, EAST, SOUTH, WEST order) whose walk closes back on it
+        private byte inferStartMask() {
+            int candidates = 0;
+            for (int direction = NORTH; direction <= WEST; direction <<= 1) {
+                if (connectsBack(start, direction)) {
+                    candidates |= direction;
                 }
-                LOGGER.info("{} | {} -> {}", currentStep, pipeList, nextPipeList);
-                currentStep++;
-                pipeList = new ArrayList<>(nextPipeList);
-                done = pipeList.isEmpty();
             }
-            for (int y = 0; y < ySize(); y++) {
-                for (int x = 0; x < xSize(); x++) {
-                    System.out.print(step[x][y] > 0 ? pipes()[x][y].pipeType().getType() : ".");
-                }
-                System.out.println();
+            if (Integer.bitCount(candidates) == 2) {
+                return (byte) candidates;
             }
-
-            int count = 0;
-            for (int y = 0; y < ySize(); y++) {
-                for (int x = 0; x < xSize(); x++) {
-                    if (step[x][y] > 0) {
-                        continue;
-                    }
-                    Pipe pipe = pipes()[x][y];
-                    if (isInsideMainLoop(step, pipe)) {
-                        count++;
+            for (int first = NORTH; first <= WEST; first <<= 1) {
+                for (int second = first << 1; second <= WEST; second <<= 1) {
+                    if ((candidates & first) != 0 && (candidates & second) != 0) {
+                        cells[start] = (byte) (first | second);
+                        if (walk(new BitSet(cells.length)) > 0) {
+                            return cells[start];
+                        }
                     }
                 }
             }
-            LOGGER.info("Part 1: {}", currentStep - 2);
-            LOGGER.info("Part 2: {}", count);
+            throw new IllegalStateException("Can't infer pipe at starting point, connections " + candidates);
+        }
 
-            return currentStep - 2; // bc we started at 1 and added 1
+        int step(int cell, int direction) {
+            return switch (direction) {
+                case NORTH -> cell - width;
+                case SOUTH -> cell + width;
+                case EAST -> cell + 1;
+                case WEST -> cell - 1;
+                default -> throw new IllegalArgumentException("oh noes: " + direction);
+            };
         }
 
-        boolean isInsideMainLoop(int[][] loop, Pipe pipe) {
-            int pipeX = pipe.x();
-            int pipeY = pipe.y();
-            if (loop[pipeX][pipeY] > 0) {
-                // is the main loop itself
-                return false;
+        static int opposite(int direction) {
+            return ((direction << 2) | (direction >> 2)) & 0xF;
+        }
+
+        boolean connectsBack(int cell, int direction) {
+            return (cells[step(cell, direction)] & opposite(direction)) != 0;
+        }
+
+        // follows the pipes from the starting point back to it, marking the loop cells, returns the loop length
+        int walkLoop(BitSet loop) {
+            int length = walk(loop);
+            if (length < 0) {
+                throw new IllegalStateException("Loop broken from starting point " + start % width + "," + start / width);
+            }
+            return length;
+        }
+
+        // same as walkLoop, but -1 if the pipes don't lead back into the starting point
+        private int walk(BitSet loop) {
+            int direction = Integer.lowestOneBit(cells[start]);
+            int cell = start;
+            int length = 0;
+            while (true) {
+                loop.set(cell);
+                cell = step(cell, direction);
+                length++;
+                if (cell == start) {
+                    return (cells[start] & opposite(direction)) != 0 ? length : -1;
+                }
+                // leave by the other connection of the pipe
+                direction = cells[cell] & ~opposite(direction);
+                if (Integer.bitCount(direction) != 1) {
+                    return -1;
+                }
             }
-            int crossingsXwest = 0;
-            for (int x = 0; x < pipeX; x++) {
-                var type = pipes()[x][pipeY].pipeType();
-                // we "look" a bit "below" when counting crossings from left, blocked by "|", by "F", and by "7". we are not blocked by "J" and "L"
-                // in my puzzle, the starting point is actually a "|", so I include it as blocking, but this code won't work for all puzzles...
-                if (loop[x][pipeY] > 0 && (type == PipeType.S || type == PipeType.NS || type == PipeType.SE || type == PipeType.SW)) {
-                    crossingsXwest++;
+        }
+
+        long countInside(BitSet loop) {
+            long count = 0;
+            for (int y = 1; y < height - 1; y++) {
+                count += countInsideRow(loop, y);
+            }
+            return count;
+        }
+
+        // rows don't depend on each other, loop is only read
+        long countInsideParallel(BitSet loop) {
+            return IntStream.range(1, height - 1).parallel().mapToLong(y -> countInsideRow(loop, y)).sum();
+        }
+
+        // scanning a row, we are inside after crossing an odd number of loop pipes going north ("|", "L", "J"):
+        // it is like looking just above the row, "-", "F" and "7" don't cross it
+        long countInsideRow(BitSet loop, int y) {
+            long count = 0;
+            boolean inside = false;
+            for (int cell = y * width; cell < (y + 1) * width; cell++) {
+                if (loop.get(cell)) {
+                    if ((cells[cell] & NORTH) != 0) {
+                        inside = !inside;
+                    }
+                } else if (inside) {
+                    count++;
                 }
             }
-            return crossingsXwest % 2 != 0;
+            return count;
         }
     }
 
     public static void main(String[] args) {
-        var puzzle = Puzzle.build(FileUtils.readAllLines(Paths.get("data", "day10.txt")));
-        puzzle.findSteps();
+        var lines = FileUtils.readAllLines(Paths.get("data", "day10.txt"));
+        var grid = Grid.build(lines);
+        var loop = new BitSet(grid.cells().length);
+        LOGGER.info("Part 1: {}", grid.walkLoop(loop) / 2);
+        LOGGER.info("Part 2: {}", grid.countInsideParallel(loop));
     }
 
 }
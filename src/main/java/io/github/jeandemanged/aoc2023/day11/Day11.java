@@ -4,159 +4,117 @@ import io.github.jeandemanged.aoc2023.utils.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 public class Day11 {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Day11.class);
 
-    record Puzzle(int xSize, int ySize, int[][] map) {
+    // galaxies only, in reading order, with the columns and rows having at least one of them
+    record Puzzle(int xSize, int ySize, int[] xs, int[] ys, BitSet occupiedColumns, BitSet occupiedRows) {
         static Puzzle build(List<String> lines) {
-            int xSize = lines.get(0).length();
-            int ySize = lines.size();
-            int[][] map = new int[xSize][ySize];
-            int currentGalaxy = 0;
-            for (int y = 0; y < ySize; y++) {
-                String line = lines.get(y);
-                for (int x = 0; x < xSize; x++) {
-                    char c = line.charAt(x);
-                    if (c == '#') {
-                        map[x][y] = ++currentGalaxy;
-                    } else {
-                        map[x][y] = 0;
-                    }
-                }
-            }
-            return new Puzzle(xSize, ySize, map);
+            var builder = new PuzzleBuilder();
+            lines.forEach(builder::add);
+            return builder.build();
         }
 
-        static Puzzle fromExpand(Puzzle puzzle) {
-            var expandInfo = ExpandInfo.from(puzzle.map(), 1);
-            int xSize = puzzle.xSize() + expandInfo.xGrow().size();
-            int ySize = puzzle.ySize() + expandInfo.yGrow().size();
-            int[][] map = new int[xSize][ySize];
-
-            for (int y = 0; y < puzzle.map()[0].length; y++) {
-                for (int x = 0; x < puzzle.map().length; x++) {
-                    final int tmpX = x;
-                    int newX = (int) (x + expandInfo.xGrow().stream().filter(i -> i < tmpX).count());
-                    final int tmpY = y;
-                    int newY = (int) (y + expandInfo.yGrow().stream().filter(i -> i < tmpY).count());
-                    map[newX][newY] = puzzle.map()[x][y];
-                }
-            }
-            return new Puzzle(xSize, ySize, map);
+        static Puzzle from(Path path) {
+            var builder = new PuzzleBuilder();
+            FileUtils.forEachLine(path, builder::add);
+            return builder.build();
         }
-    }
 
-    record Galaxy(int x, int y, int num, ExpandInfo expandInfo) {
+        int size() {
+            return xs.length;
+        }
+    }
 
-        long distance(Galaxy other) {
-            if (this.expandInfo() == null) {
-                // galaxy already expanded
-                return Math.abs(other.x() - this.x()) + Math.abs(other.y() - this.y());
-            } else {
-                return Math.abs(other.getRealX() - getRealX()) + Math.abs(other.getRealY() - getRealY());
+    static class PuzzleBuilder {
+        private int xSize = -1;
+        private int ySize = 0;
+        private int size = 0;
+        private int[] xs = new int[64];
+        private int[] ys = new int[64];
+        private final BitSet occupiedColumns = new BitSet();
+        private final BitSet occupiedRows = new BitSet();
+
+        void add(String line) {
+            if (xSize < 0) {
+                xSize = line.length();
+            } else if (line.length() != xSize) {
+                throw new IllegalArgumentException("Line " + ySize + " has length " + line.length() + ", expected " + xSize);
+            }
+            for (int x = line.indexOf('#'); x >= 0; x = line.indexOf('#', x + 1)) {
+                if (size == xs.length) {
+                    xs = Arrays.copyOf(xs, size * 2);
+                    ys = Arrays.copyOf(ys, size * 2);
+                }
+                xs[size] = x;
+                ys[size] = ySize;
+                size++;
+                occupiedColumns.set(x);
+                occupiedRows.set(ySize);
             }
+            ySize++;
         }
 
-        long getRealX() {
-            return x() + expandInfo.howMany() * expandInfo.xGrow().stream().filter(i -> i < x()).count();
+        Puzzle build() {
+            return new Puzzle(Math.max(xSize, 0), ySize, Arrays.copyOf(xs, size), Arrays.copyOf(ys, size), occupiedColumns, occupiedRows);
         }
+    }
 
-        long getRealY() {
-            return y() + expandInfo.howMany() * expandInfo.yGrow().stream().filter(i -> i < y()).count();
+    // prefix sums: number of empty columns left of each x, and of empty rows above each y
+    record ExpandInfo(int[] emptyColumnsBefore, int[] emptyRowsBefore) {
+        static ExpandInfo from(Puzzle puzzle) {
+            return new ExpandInfo(emptyBefore(puzzle.occupiedColumns(), puzzle.xSize()), emptyBefore(puzzle.occupiedRows(), puzzle.ySize()));
         }
-    }
 
-    static void display(int[][] map) {
-        for (int y = 0; y < map[0].length; y++) {
-            for (int x = 0; x < map.length; x++) {
-                System.out.print(map[x][y]);
+        private static int[] emptyBefore(BitSet occupied, int size) {
+            int[] emptyBefore = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                emptyBefore[i + 1] = emptyBefore[i] + (occupied.get(i) ? 0 : 1);
             }
-            System.out.println();
+            return emptyBefore;
         }
     }
 
-    static List<Galaxy> getGalaxies(int[][] map) {
-        // for map already expanded
-        return getGalaxies(map, null);
+    static long totalDistance(Puzzle puzzle, ExpandInfo expandInfo, long factor) {
+        return axisDistance(puzzle.xs(), expandInfo.emptyColumnsBefore(), factor)
+                + axisDistance(puzzle.ys(), expandInfo.emptyRowsBefore(), factor);
     }
 
-    static List<Galaxy> getGalaxies(int[][] map, ExpandInfo expandInfo) {
-        List<Galaxy> galaxies = new ArrayList<>();
-        for (int y = 0; y < map[0].length; y++) {
-            for (int x = 0; x < map.length; x++) {
-                if (map[x][y] > 0) {
-                    galaxies.add(new Galaxy(x, y, map[x][y], expandInfo));
-                }
-            }
+    // sum of the distances between all pairs on one axis, walking the coordinates in order with a count per coordinate:
+    // a galaxy adds real * (galaxies before) - (sum of their real coordinates), where each empty column or row counts factor times
+    static long axisDistance(int[] coordinates, int[] emptyBefore, long factor) {
+        int[] counts = new int[emptyBefore.length - 1];
+        for (int coordinate : coordinates) {
+            counts[coordinate]++;
         }
-        return galaxies;
-    }
-
-    record ExpandInfo(List<Integer> xGrow, List<Integer> yGrow, long howMany) {
-        static ExpandInfo from(int[][] map, long howMany) {
-            List<Integer> xGrow = new ArrayList<>();
-            List<Integer> yGrow = new ArrayList<>();
-            for (int y = 0; y < map.length; y++) {
-                boolean allZero = true;
-                for (int x = 0; x < map[y].length; x++) {
-                    if (map[x][y] > 0) {
-                        allZero = false;
-                    }
-                }
-                if (allZero) {
-                    yGrow.add(y);
-                }
-            }
-            for (int x = 0; x < map[0].length; x++) {
-                boolean allZero = true;
-                for (int y = 0; y < map.length; y++) {
-                    if (map[x][y] > 0) {
-                        allZero = false;
-                    }
-                }
-                if (allZero) {
-                    xGrow.add(x);
-                }
+        long distance = 0;
+        long before = 0;
+        long previousSum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
             }
-            return new ExpandInfo(xGrow, yGrow, howMany);
+            long real = i + (factor - 1) * emptyBefore[i];
+            distance += counts[i] * (real * before - previousSum);
+            before += counts[i];
+            previousSum += counts[i] * real;
         }
+        return distance;
     }
 
     public static void main(String[] args) {
-        var puzzle = Puzzle.build(FileUtils.readAllLines(Paths.get("data", "day11.txt")));
-
-        display(puzzle.map());
-        ExpandInfo expandInfo = ExpandInfo.from(puzzle.map(), 1);
-        LOGGER.info("{} ", expandInfo);
-        Puzzle expanded = Puzzle.fromExpand(puzzle);
-        display(expanded.map());
-        var galaxies = getGalaxies(expanded.map());
-        int distance = 0;
-        for (int i = 0; i < galaxies.size(); i++) {
-            Galaxy gi = galaxies.get(i);
-            for (int j = i; j < galaxies.size(); j++) {
-                Galaxy gj = galaxies.get(j);
-                distance += gi.distance(gj);
-            }
-        }
-        LOGGER.info("Part 1: {}", distance);
-
-        ExpandInfo expandInfo2 = ExpandInfo.from(puzzle.map(), 999999);
-        var galaxies2 = getGalaxies(puzzle.map(), expandInfo2);
-        long distance2 = 0L;
-        for (int i = 0; i < galaxies2.size(); i++) {
-            Galaxy gi = galaxies2.get(i);
-            for (int j = i; j < galaxies2.size(); j++) {
-                Galaxy gj = galaxies2.get(j);
-                distance2 += gi.distance(gj);
-            }
-        }
-        LOGGER.info("Part 2: {}", distance2);
+        var puzzle = Puzzle.from(Paths.get("data", "day11.txt"));
+        var expandInfo = ExpandInfo.from(puzzle);
+        LOGGER.info("{} galaxies", puzzle.size());
+        LOGGER.info("Part 1: {}", totalDistance(puzzle, expandInfo, 2));
+        LOGGER.info("Part 2: {}", totalDistance(puzzle, expandInfo, 1_000_000));
     }
 
 }
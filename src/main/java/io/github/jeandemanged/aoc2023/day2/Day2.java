@@ -5,7 +5,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.file.Paths;
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 
 public class Day2 {
 
@@ -15,72 +17,140 @@ public class Day2 {
         RED, GREEN, BLUE,
     }
 
-    record Cube(int num, Color color) {
+    private static final String[] COLOR_NAMES = Arrays.stream(Color.values())
+            .map(color -> color.name().toLowerCase(Locale.ROOT))
+            .toArray(String[]::new);
+
+    // index of the game id in the parse output, followed by the max per Color ordinal
+    static final int ID = 0;
+
+    // single pass over "Game <id>: <num> <color>, <num> <color>; ...", no intermediate strings:
+    // game gets the id and, for each color, the max revealed at once
+    static void parseGame(String line, int[] game) {
+        if (!line.startsWith("Game ")) {
+            throw new IllegalArgumentException("expected game: " + line);
+        }
+        int pos = "Game ".length();
+        int id = 0;
+        int start = pos;
+        while (pos < line.length() && isDigit(line.charAt(pos))) {
+            id = id * 10 + (line.charAt(pos++) - '0');
+        }
+        if (pos == start || pos == line.length() || line.charAt(pos) != ':') {
+            throw new IllegalArgumentException("expected game id: " + line);
+        }
+        pos++;
+        game[ID] = id;
+        Arrays.fill(game, ID + 1, ID + 1 + COLOR_NAMES.length, 0);
+        while (pos < line.length()) {
+            // skip separators, "," between cubes and ";" between reveals make no difference for the max
+            char c = line.charAt(pos);
+            if (c == ' ' || c == ',' || c == ';') {
+                pos++;
+                continue;
+            }
+            int num = 0;
+            start = pos;
+            while (pos < line.length() && isDigit(line.charAt(pos))) {
+                num = num * 10 + (line.charAt(pos++) - '0');
+            }
+            if (pos == start || pos == line.length() || line.charAt(pos) != ' ') {
+                throw new IllegalArgumentException("expected cube number at " + start + ": " + line);
+            }
+            pos++;
+            int color = colorAt(line, pos);
+            game[ID + 1 + color] = Math.max(game[ID + 1 + color], num);
+            pos += COLOR_NAMES[color].length();
+        }
     }
 
-    record Reveal(List<Cube> cubes) {
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 
-    record Game(int id, List<Reveal> reveals) {
+    private static int colorAt(String line, int pos) {
+        for (int color = 0; color < COLOR_NAMES.length; color++) {
+            if (line.startsWith(COLOR_NAMES[color], pos)) {
+                return color;
+            }
+        }
+        throw new IllegalArgumentException("expected color at " + pos + ": " + line);
     }
 
-    public static void main(String[] args) {
-        var lines = FileUtils.readAllLines(Paths.get("data", "day2.txt"));
-        List<Game> games = new ArrayList<>();
-        for (var line : lines) {
-            var gr = line.split(":");
-            if (gr.length != 2) {
-                throw new IllegalArgumentException("expected 2 for game");
+    // columnar per-game aggregates, loaded once and queried for any number of bag limits.
+    // block is the number of games whose ids can be summed in an int without overflowing
+    record Games(int[] ids, int[] maxRed, int[] maxGreen, int[] maxBlue, int block) {
+        private static final int MAX_BLOCK = 1024;
+
+        static Games load(List<String> lines) {
+            int n = lines.size();
+            int[] ids = new int[n];
+            int[] maxRed = new int[n];
+            int[] maxGreen = new int[n];
+            int[] maxBlue = new int[n];
+            int[] game = new int[1 + COLOR_NAMES.length];
+            int maxId = 1;
+            for (int i = 0; i < n; i++) {
+                parseGame(lines.get(i), game);
+                ids[i] = game[ID];
+                maxRed[i] = game[ID + 1 + Color.RED.ordinal()];
+                maxGreen[i] = game[ID + 1 + Color.GREEN.ordinal()];
+                maxBlue[i] = game[ID + 1 + Color.BLUE.ordinal()];
+                maxId = Math.max(maxId, ids[i]);
             }
-            var gamestr = gr[0];
-            var revealsstr = gr[1];
-            final int gameId = Integer.parseInt(gamestr.replace("Game ", ""));
-            var reveals = revealsstr.toUpperCase()
-                    .replaceFirst(" ", "")
-                    .replace(", ", ",")
-                    .replace("; ", ";")
-                    .split(";");
-
-            List<Reveal> revealList = new ArrayList<>();
-            for (var reveal : reveals) {
-                var cubesStr = reveal.split(",");
-                List<Cube> cubes = new ArrayList<>();
-                for (var cubeStr : cubesStr) {
-                    var rs = cubeStr.split(" ");
-                    if (rs.length != 2) {
-                        throw new IllegalArgumentException("expected 2 for cube");
-                    }
-                    var num = Integer.parseInt(rs[0]);
-                    var color = Color.valueOf(rs[1]);
-                    cubes.add(new Cube(num, color));
+            return new Games(ids, maxRed, maxGreen, maxBlue, Math.min(MAX_BLOCK, Integer.MAX_VALUE / maxId));
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        // sum of the ids of the games possible with the bag limits
+        long sumPossible(int red, int green, int blue) {
+            long sum = 0;
+            for (int from = 0; from < ids.length; from += block) {
+                sum += sumPossible(from, Math.min(from + block, ids.length), red, green, blue);
+            }
+            return sum;
+        }
+
+        // one sumPossible per {red, green, blue} scenario, every scenario scans a block while it is in cache
+        long[] sumPossible(int[][] limits) {
+            long[] sums = new long[limits.length];
+            for (int from = 0; from < ids.length; from += block) {
+                int to = Math.min(from + block, ids.length);
+                for (int s = 0; s < limits.length; s++) {
+                    sums[s] += sumPossible(from, to, limits[s][0], limits[s][1], limits[s][2]);
                 }
-                revealList.add(new Reveal(cubes));
             }
-            games.add(new Game(gameId, revealList));
+            return sums;
         }
-        var maxPerColor = Map.of(Color.RED, 12, Color.GREEN, 13, Color.BLUE, 14);
-        var possibleGames = games.stream().filter(game -> {
-            var filter =
-                    game.reveals().stream().flatMap(r -> r.cubes().stream()).noneMatch(reveal -> reveal.num() > maxPerColor.get(reveal.color()));
-            LOGGER.debug("filtering {} {}", game.id(), filter);
-            return filter;
-        });
-        int sum = possibleGames.mapToInt(Game::id).sum();
-        LOGGER.info("Day2 Part 1: {}", sum);
-
-        int sumPart2 = 0;
-        for (Game game : games) {
-            Map<Color, Integer> minPerColor = new EnumMap<>(Color.class);
-            for (Color color : Color.values()) {
-                var min = game.reveals().stream()
-                        .flatMap(r -> r.cubes().stream().filter(c -> color == c.color()))
-                        .max(Comparator.comparingInt(Cube::num)).orElse(new Cube(0, color)).num();
-                minPerColor.put(color, min);
+
+        // branch free so that the JIT vectorizes it: limit - max is negative, its sign bit set, when max is over the limit.
+        // An int sum vectorizes where a long one doesn't, hence the blocks
+        private int sumPossible(int from, int to, int red, int green, int blue) {
+            int sum = 0;
+            for (int i = from; i < to; i++) {
+                int over = ((red - maxRed[i]) | (green - maxGreen[i]) | (blue - maxBlue[i])) >> 31;
+                sum += ids[i] & ~over;
             }
-            var power = minPerColor.values().stream().reduce(1, (pow, element) -> pow * element);
-            LOGGER.debug("Game {} {} {}", game.id(), minPerColor, power);
-            sumPart2 += power;
+            return sum;
         }
-        LOGGER.info("Day2 Part 2: {}", sumPart2);
+
+        // sum of the powers of the minimal bags, doesn't depend on any limit
+        long sumPower() {
+            long sum = 0;
+            for (int i = 0; i < ids.length; i++) {
+                sum += (long) maxRed[i] * maxGreen[i] * maxBlue[i];
+            }
+            return sum;
+        }
+    }
+
+    public static void main(String[] args) {
+        var games = Games.load(FileUtils.readAllLines(Paths.get("data", "day2.txt")));
+        LOGGER.debug("{} games loaded", games.size());
+        LOGGER.info("Day2 Part 1: {}", games.sumPossible(12, 13, 14));
+        LOGGER.info("Day2 Part 2: {}", games.sumPower());
     }
 }
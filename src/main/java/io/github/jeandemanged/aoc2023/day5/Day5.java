@@ -6,6 +6,8 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 public class Day5 {
 
@@ -25,23 +27,190 @@ public class Day5 {
         }
     }
 
-    record SourceDestMap(Category sourceCategory, Category destinationCategory, List<MapRange> mapRanges) {
-        SourceDestMap(Category sourceCategory, Category destinationCategory) {
-            this(sourceCategory, destinationCategory, new ArrayList<>());
+    record Interval(long start, long length) {
+        long end() {
+            return start + length;
+        }
+    }
+
+    // frozen view of the MapRanges of a map, sorted by source, for binary search lookups
+    record MapRangeIndex(long[] sources, long[] destinations, long[] lengths) {
+        static MapRangeIndex from(List<MapRange> mapRanges) {
+            var sorted = mapRanges.stream()
+                    .filter(mapRange -> mapRange.length() > 0)
+                    .sorted(Comparator.comparingLong(MapRange::source))
+                    .toList();
+            long[] sources = new long[sorted.size()];
+            long[] destinations = new long[sorted.size()];
+            long[] lengths = new long[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                MapRange mapRange = sorted.get(i);
+                if (i > 0 && mapRange.source() < sources[i - 1] + lengths[i - 1]) {
+                    throw new IllegalArgumentException("Overlapping MapRange: " + mapRange);
+                }
+                sources[i] = mapRange.source();
+                destinations[i] = mapRange.destination();
+                lengths[i] = mapRange.length();
+            }
+            return new MapRangeIndex(sources, destinations, lengths);
+        }
+
+        int size() {
+            return sources.length;
+        }
+
+        long end(int i) {
+            return sources[i] + lengths[i];
+        }
+
+        // index of the last range starting at or before source, -1 if none
+        int floor(long source) {
+            int low = 0;
+            int high = sources.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (sources[mid] <= source) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+
+        boolean covers(int i, long source) {
+            return i >= 0 && source < end(i);
+        }
+
+        boolean isGap(long source) {
+            return !covers(floor(source), source);
+        }
+
+        long map(long source) {
+            int i = floor(source);
+            return covers(i, source) ? destinations[i] + source - sources[i] : source;
+        }
+    }
+
+    // piecewise linear function: values in [starts[i], starts[i + 1]) are shifted by offsets[i]
+    // first segment starts at Long.MIN_VALUE and last one runs to Long.MAX_VALUE, both unshifted
+    record PiecewiseMap(long[] starts, long[] offsets) {
+        static PiecewiseMap identity() {
+            return new PiecewiseMap(new long[]{Long.MIN_VALUE}, new long[]{0});
+        }
+
+        static PiecewiseMap from(MapRangeIndex index) {
+            var builder = new PiecewiseMapBuilder();
+            long current = Long.MIN_VALUE;
+            for (int i = 0; i < index.size(); i++) {
+                if (current < index.sources()[i]) {
+                    builder.add(current, 0);
+                }
+                builder.add(index.sources()[i], index.destinations()[i] - index.sources()[i]);
+                current = index.end(i);
+            }
+            builder.add(current, 0);
+            return builder.build();
+        }
+
+        int size() {
+            return starts.length;
+        }
+
+        long end(int i) {
+            return i + 1 < starts.length ? starts[i + 1] : Long.MAX_VALUE;
+        }
+
+        int floor(long value) {
+            int low = 0;
+            int high = starts.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
         }
 
-        void addMapRange(MapRange mapRange) {
-            this.mapRanges().add(mapRange);
+        long map(long value) {
+            return value + offsets[floor(value)];
+        }
+
+        // this map followed by next one
+        PiecewiseMap andThen(PiecewiseMap next) {
+            var builder = new PiecewiseMapBuilder();
+            for (int i = 0; i < size(); i++) {
+                long offset = offsets[i];
+                long current = starts[i] + offset;
+                long imageEnd = end(i) == Long.MAX_VALUE ? Long.MAX_VALUE : end(i) + offset;
+                int j = next.floor(current);
+                while (current < imageEnd) {
+                    builder.add(current - offset, offset + next.offsets()[j]);
+                    current = Math.min(imageEnd, next.end(j));
+                    j++;
+                }
+            }
+            return builder.build();
+        }
+
+        long lowest(long start, long length) {
+            long end = start + length;
+            long lowest = Long.MAX_VALUE;
+            for (int i = floor(start); i < size() && starts[i] < end; i++) {
+                // each segment is increasing, so its lowest value is at its first point in the range
+                lowest = Math.min(lowest, Math.max(start, starts[i]) + offsets[i]);
+            }
+            return lowest;
+        }
+    }
+
+    static class PiecewiseMapBuilder {
+        private final List<long[]> segments = new ArrayList<>();
+
+        void add(long start, long offset) {
+            if (!segments.isEmpty() && segments.get(segments.size() - 1)[1] == offset) {
+                // contiguous with the same shift, merge
+                return;
+            }
+            segments.add(new long[]{start, offset});
+        }
+
+        PiecewiseMap build() {
+            return new PiecewiseMap(segments.stream().mapToLong(s -> s[0]).toArray(), segments.stream().mapToLong(s -> s[1]).toArray());
+        }
+    }
+
+    record SourceDestMap(Category sourceCategory, Category destinationCategory, List<MapRange> mapRanges, MapRangeIndex index) {
+        SourceDestMap(Category sourceCategory, Category destinationCategory, List<MapRange> mapRanges) {
+            this(sourceCategory, destinationCategory, List.copyOf(mapRanges), MapRangeIndex.from(mapRanges));
         }
 
         long getMappingForSource(long source) {
-            for (MapRange mapRange : mapRanges) {
-                if (source >= mapRange.source() && source < mapRange.source() + mapRange.length()) {
-                    long offset = source - mapRange.source();
-                    return mapRange.destination() + offset;
+            return index.map(source);
+        }
+
+        List<Interval> getMappingForIntervals(List<Interval> intervals) {
+            List<Interval> mapped = new ArrayList<>();
+            for (Interval interval : intervals) {
+                long current = interval.start();
+                while (current < interval.end()) {
+                    int i = index.floor(current);
+                    long segmentEnd;
+                    if (index.covers(i, current)) {
+                        segmentEnd = Math.min(interval.end(), index.end(i));
+                        mapped.add(new Interval(index.destinations()[i] + current - index.sources()[i], segmentEnd - current));
+                    } else {
+                        // gap up to the next range, mapped to itself
+                        segmentEnd = i + 1 < index.size() ? Math.min(interval.end(), index.sources()[i + 1]) : interval.end();
+                        mapped.add(new Interval(current, segmentEnd - current));
+                    }
+                    current = segmentEnd;
                 }
             }
-            return source;
+            return mapped;
         }
     }
 
@@ -51,9 +220,9 @@ public class Day5 {
             List<Long> seeds = Arrays.stream(lines.get(0).replace("seeds: ", "").split(" ")).map(Long::parseLong).toList();
             seeds = new ArrayList<>(seeds);
             List<SourceDestMap> sourceDestMaps = new ArrayList<>();
-            Category sourceCategory;
-            Category destinationCategory;
-            SourceDestMap sourceDestMap = null;
+            Category sourceCategory = null;
+            Category destinationCategory = null;
+            List<MapRange> mapRanges = null;
             for (int i = 2; i < lines.size(); i++) {
                 String l = lines.get(i);
                 if (l.endsWith(" map:")) {
@@ -64,22 +233,33 @@ public class Day5 {
                     }
                     sourceCategory = Category.valueOf(split[0]);
                     destinationCategory = Category.valueOf(split[1]);
-                    sourceDestMap = new SourceDestMap(sourceCategory, destinationCategory);
+                    mapRanges = new ArrayList<>();
                 } else if (l.isEmpty()) {
                     // map ends
-                    sourceDestMaps.add(sourceDestMap);
-                    sourceDestMap = null;
+                    if (mapRanges != null) {
+                        sourceDestMaps.add(new SourceDestMap(sourceCategory, destinationCategory, mapRanges));
+                    }
+                    mapRanges = null;
                 } else {
                     // map
-                    if (sourceDestMap == null) {
+                    if (mapRanges == null) {
                         throw new IllegalStateException("map at line " + i + " " + l);
                     }
-                    sourceDestMap.addMapRange(MapRange.fromString(l));
+                    mapRanges.add(MapRange.fromString(l));
                 }
             }
             return new Almanac(seeds, sourceDestMaps);
         }
 
+        // all maps fused into a single SEED to LOCATION map, can be kept and reused for other seeds
+        PiecewiseMap compose() {
+            PiecewiseMap composed = PiecewiseMap.identity();
+            for (SourceDestMap sourceDestMap : sourceDestMaps) {
+                composed = composed.andThen(PiecewiseMap.from(sourceDestMap.index()));
+            }
+            return composed;
+        }
+
         /* works but doesnt fit in memory for real puzzle
         void patchSeedsForPartTwo() {
             if ((this.seeds().size() % 2) != 0) {
@@ -101,8 +281,15 @@ public class Day5 {
         var almanac = Almanac.build(FileUtils.readAllLines(Paths.get("data", "day5.txt")));
         long lowest = getLowest(almanac);
         LOGGER.info("Part 1: {}", lowest);
-        long lowest2 = getLowest2(almanac);
+        long lowest2 = getLowest2Composed(almanac.compose(), almanac.seeds());
         LOGGER.info("Part 2: {}", lowest2);
+        if (Boolean.getBoolean("day5.bruteForce")) {
+            // opt-in reference checks: whole ranges through each map, then one seed at a time
+            LOGGER.info("Part 2 (intervals): {}", getLowest2Intervals(almanac));
+            int parallelism = Integer.getInteger("day5.parallelism", Runtime.getRuntime().availableProcessors());
+            long bruteForce = parallelism > 1 ? getLowest2Parallel(almanac, parallelism) : getLowest2(almanac);
+            LOGGER.info("Part 2 (brute force, parallelism={}): {}", parallelism, bruteForce);
+        }
 
     }
 
@@ -123,6 +310,84 @@ public class Day5 {
         return lowest;
     }
 
+    // pushes whole seed ranges through the maps, same result as getLowest2 but time depends on number of ranges only
+    private static long getLowest2Intervals(Almanac almanac) {
+        if ((almanac.seeds().size() % 2) != 0) {
+            throw new IllegalStateException("Uneven");
+        }
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < almanac.seeds().size(); i = i + 2) {
+            intervals.add(new Interval(almanac.seeds().get(i), almanac.seeds().get(i + 1)));
+        }
+        for (SourceDestMap sourceDestMap : almanac.sourceDestMaps()) {
+            intervals = sourceDestMap.getMappingForIntervals(intervals);
+            LOGGER.debug("{}->{}: {} intervals", sourceDestMap.sourceCategory(), sourceDestMap.destinationCategory(), intervals.size());
+        }
+        return intervals.stream().mapToLong(Interval::start).min().orElseThrow(() -> new IllegalStateException("No seeds"));
+    }
+
+    private static long getLowest2Composed(PiecewiseMap composed, List<Long> seeds) {
+        if ((seeds.size() % 2) != 0) {
+            throw new IllegalStateException("Uneven");
+        }
+        long lowest = Long.MAX_VALUE;
+        for (int i = 0; i < seeds.size(); i = i + 2) {
+            lowest = Math.min(lowest, composed.lowest(seeds.get(i), seeds.get(i + 1)));
+        }
+        return lowest;
+    }
+
+    static class LowestTask extends RecursiveTask<Long> {
+        private static final long CHUNK_SIZE = 1 << 20;
+
+        private final MapRangeIndex[] indexes;
+        private final long start;
+        private final long length;
+
+        LowestTask(MapRangeIndex[] indexes, long start, long length) {
+            this.indexes = indexes;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        protected Long compute() {
+            if (length > CHUNK_SIZE) {
+                long half = length / 2;
+                var left = new LowestTask(indexes, start, half);
+                left.fork();
+                long right = new LowestTask(indexes, start + half, length - half).compute();
+                return Math.min(left.join(), right);
+            }
+            long lowest = Long.MAX_VALUE;
+            for (long j = start; j < start + length; j++) {
+                long currentSource = j;
+                for (MapRangeIndex index : indexes) {
+                    currentSource = index.map(currentSource);
+                }
+                lowest = Math.min(lowest, currentSource);
+            }
+            return lowest;
+        }
+    }
+
+    // same as getLowest2, but seed ranges are chunked over a fork-join pool
+    private static long getLowest2Parallel(Almanac almanac, int parallelism) {
+        if ((almanac.seeds().size() % 2) != 0) {
+            throw new IllegalStateException("Uneven");
+        }
+        var indexes = almanac.sourceDestMaps().stream().map(SourceDestMap::index).toArray(MapRangeIndex[]::new);
+        try (var pool = new ForkJoinPool(parallelism)) {
+            long lowest = Long.MAX_VALUE;
+            for (int i = 0; i < almanac.seeds().size(); i = i + 2) {
+                long rangeStart = almanac.seeds().get(i);
+                long rangeLength = almanac.seeds().get(i + 1);
+                lowest = Math.min(lowest, pool.invoke(new LowestTask(indexes, rangeStart, rangeLength)));
+            }
+            return lowest;
+        }
+    }
+
     // works but completely dumb and awfully slow
     private static long getLowest2(Almanac almanac) {
         if ((almanac.seeds().size() % 2) != 0) {
@@ -4,6 +4,7 @@ import io.github.jeandemanged.aoc2023.utils.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigInteger;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -14,7 +15,60 @@ public class Day6 {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Day6.class);
 
-    record Race(int time, int distance) {
+    record Race(long time, long distance) {
+        // up to this time, time * time fits in a long, so does (time - t) * t
+        private static final long MAX_LONG_TIME = 3_037_000_499L;
+
+        // hold times t winning are the ones strictly between the roots of t^2 - time * t + distance = 0
+        long countWins() {
+            if (time > MAX_LONG_TIME) {
+                return countWinsBig();
+            }
+            // best we can do is holding half the time
+            if (distance >= (time / 2) * (time - time / 2)) {
+                return 0;
+            }
+            long root = sqrt(time * time - 4 * distance);
+            long lowest = Math.max(1, (time - root) / 2);
+            // integer root may be one off the real one, fix the bound with exact products
+            while ((time - lowest) * lowest <= distance) {
+                lowest++;
+            }
+            while (lowest > 1 && (time - lowest + 1) * (lowest - 1) > distance) {
+                lowest--;
+            }
+            return time - 2 * lowest + 1;
+        }
+
+        private long countWinsBig() {
+            var t = BigInteger.valueOf(time);
+            var d = BigInteger.valueOf(distance);
+            var half = t.shiftRight(1);
+            if (d.compareTo(half.multiply(t.subtract(half))) >= 0) {
+                return 0;
+            }
+            var root = t.multiply(t).subtract(d.shiftLeft(2)).sqrt();
+            var lowest = t.subtract(root).shiftRight(1).max(BigInteger.ONE);
+            while (t.subtract(lowest).multiply(lowest).compareTo(d) <= 0) {
+                lowest = lowest.add(BigInteger.ONE);
+            }
+            while (lowest.compareTo(BigInteger.ONE) > 0
+                    && t.subtract(lowest).add(BigInteger.ONE).multiply(lowest.subtract(BigInteger.ONE)).compareTo(d) > 0) {
+                lowest = lowest.subtract(BigInteger.ONE);
+            }
+            return t.subtract(lowest.shiftLeft(1)).add(BigInteger.ONE).longValueExact();
+        }
+
+        static long sqrt(long value) {
+            long root = (long) Math.sqrt(value);
+            while (root * root > value) {
+                root--;
+            }
+            while (root < MAX_LONG_TIME && (root + 1) * (root + 1) <= value) {
+                root++;
+            }
+            return root;
+        }
     }
 
     record Puzzle(List<Race> races) {
@@ -26,49 +80,36 @@ public class Day6 {
                 throw new IllegalArgumentException("huho");
             }
             for (int i = 0; i < times.size(); i++) {
-                Integer t = times.get(i);
-                Integer d = distances.get(i);
+                Long t = times.get(i);
+                Long d = distances.get(i);
                 puzzle.races().add(new Race(t, d));
             }
             return puzzle;
         }
     }
 
-    static List<Integer> values(String line) {
+    static List<Long> values(String line) {
         return Arrays.stream(line.split(":")[1].split(" ")).map(s -> s.replace(" ", ""))
                 .filter(Predicate.not(String::isBlank))
-                .map(Integer::parseInt).toList();
+                .map(Long::parseLong).toList();
+    }
+
+    // part 2 reads the line as a single number, ignoring the spaces
+    static long joinedValue(String line) {
+        return Long.parseLong(line.split(":")[1].replace(" ", ""));
     }
 
     public static void main(String[] args) {
-        var puzzle = Puzzle.build(FileUtils.readAllLines(Paths.get("data", "day6.txt")));
-        List<Integer> countWins = new ArrayList<>();
-        for (Race race : puzzle.races()) {
-            int countWin = 0;
-            for (int t = 1; t <= race.time(); t++) {
-                int distanceDone = (race.time() - t) * t;
-                if (distanceDone > race.distance()) {
-                    countWin++;
-                }
-            }
-            countWins.add(countWin);
-        }
-        int part1 = countWins.stream().reduce(1, (a, b) -> a * b);
+        var lines = FileUtils.readAllLines(Paths.get("data", "day6.txt"));
+        var puzzle = Puzzle.build(lines);
+        List<Long> countWins = puzzle.races().stream().map(Race::countWins).toList();
+        long part1 = countWins.stream().reduce(1L, (a, b) -> a * b);
         LOGGER.info("Part 1: puzzle={}", puzzle);
         LOGGER.info("Part 1: countWins={}", countWins);
         LOGGER.info("Part 1: {}", part1);
 
-        long time = 59688274L;
-        long rec = 543102016641022L;
-
-        long countWin = 0;
-        for (long t = 1; t < time; t++) {
-            long distanceDone = (time - t) * t;
-            if (distanceDone > rec) {
-                countWin++;
-            }
-        }
-        LOGGER.info("Part 2: {}", countWin);
+        var race = new Race(joinedValue(lines.get(0)), joinedValue(lines.get(1)));
+        LOGGER.info("Part 2: {}", race.countWins());
     }
 
 }
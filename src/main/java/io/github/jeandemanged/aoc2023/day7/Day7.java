@@ -7,7 +7,6 @@ import org.slf4j.LoggerFactory;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 public class Day7 {
 
@@ -142,6 +141,15 @@ public class Day7 {
             throw new IllegalStateException("oh noes: " + this.cards());
         }
 
+        // hand type in the high bits, then each card value on 4 bits: keys sort like handComparator
+        int sortKey() {
+            int key = getHandType().getValue();
+            for (Card card : cards) {
+                key = (key << 4) | card.getValue();
+            }
+            return key;
+        }
+
         static Hand fromLine(String line) {
             var split = line.split(" ");
             if (split.length != 2) {
@@ -169,8 +177,17 @@ public class Day7 {
         }
 
         int getWinnings() {
-            var sorted = hands.stream().sorted(handComparator).toList();
-            return IntStream.range(1, sorted.size() + 1).mapToObj(i -> i * sorted.get(i - 1).bid()).mapToInt(i -> i).sum();
+            // sort key in the high bits, position in the low bits to keep equal hands in input order
+            long[] keys = new long[hands.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = ((long) hands.get(i).sortKey() << 32) | i;
+            }
+            Arrays.sort(keys);
+            int winnings = 0;
+            for (int i = 0; i < keys.length; i++) {
+                winnings += (i + 1) * hands.get((int) keys[i]).bid();
+            }
+            return winnings;
         }
     }
 
@@ -4,10 +4,9 @@ import io.github.jeandemanged.aoc2023.utils.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 public class Day7Part2 {
 
@@ -68,6 +67,62 @@ public class Day7Part2 {
     static ValuedEnumComparator<Card> cardComparator = new ValuedEnumComparator<>();
     static HandComparator handComparator = new HandComparator();
 
+    private static final int CARD_COUNT = Card.values().length;
+
+    // indexed by (highest non joker count + jokers) * 3 + second highest non joker count
+    private static final HandType[] HAND_TYPES = buildHandTypes();
+
+    private static HandType[] buildHandTypes() {
+        HandType[] handTypes = new HandType[6 * 3];
+        for (int highest = 0; highest <= 5; highest++) {
+            for (int second = 0; second <= 2; second++) {
+                handTypes[highest * 3 + second] = switch (highest) {
+                    case 5 -> HandType.FIVE_OF_A_KIND;
+                    case 4 -> HandType.FOUR_OF_A_KIND;
+                    case 3 -> second == 2 ? HandType.FULL_HOUSE : HandType.THREE_OF_A_KIND;
+                    case 2 -> second == 2 ? HandType.TWO_PAIR : HandType.ONE_PAIR;
+                    default -> HandType.HIGH_CARD;
+                };
+            }
+        }
+        return handTypes;
+    }
+
+    // counts per Card ordinal, the joker slot is ignored: jokers always join the highest count
+    static HandType classify(int[] counts, int jokers) {
+        int highest = 0;
+        int second = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (i == Card.CJ.ordinal()) {
+                continue;
+            }
+            int count = counts[i];
+            if (count > highest) {
+                second = highest;
+                highest = count;
+            } else if (count > second) {
+                second = count;
+            }
+        }
+        return HAND_TYPES[(highest + jokers) * 3 + second];
+    }
+
+    // same as above, with the counts packed on 4 bits per Card ordinal so that nothing gets allocated
+    static HandType classify(long counts, int jokers) {
+        int highest = 0;
+        int second = 0;
+        for (long rest = counts; rest != 0; rest >>>= 4) {
+            int count = (int) (rest & 0xF);
+            if (count > highest) {
+                second = highest;
+                highest = count;
+            } else if (count > second) {
+                second = count;
+            }
+        }
+        return HAND_TYPES[(highest + jokers) * 3 + second];
+    }
+
     static class HandComparator implements Comparator<Hand> {
         @Override
         public int compare(Hand h1, Hand h2) {
@@ -110,78 +165,28 @@ public class Day7Part2 {
 
     record Hand(List<Card> cards, int bid) {
 
+        // indexed loops, no iterator: classifying a hand doesn't allocate
         HandType getHandType() {
-            Map<Card, Integer> count = new EnumMap<>(Card.class);
-            cards.forEach(card -> {
-                count.computeIfAbsent(card, c -> 0);
-                count.put(card, count.get(card) + 1);
-            });
-            var nonZeroes =
-                    count.entrySet().stream()
-                            .filter(entry -> entry.getValue() != 0)
-                            .filter(entry -> entry.getKey() != Card.CJ)
-                            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-            var nonZerosCounts = nonZeroes.values().stream().sorted(Comparator.reverseOrder()).toList();
-            var numJokers = cards().stream().filter(c -> c == Card.CJ).count();
-            if (numJokers == 5) {
-                return HandType.FIVE_OF_A_KIND;
-            } else if (numJokers == 0) { // shame on me for doing this
-                if (nonZeroes.size() == 5) {
-                    return HandType.HIGH_CARD;
-                } else if (nonZeroes.size() == 4) {
-                    return HandType.ONE_PAIR;
-                } else if (nonZeroes.size() == 3) {
-                    if (nonZerosCounts.get(0) == 2 && nonZerosCounts.get(1) == 2) {
-                        return HandType.TWO_PAIR;
-                    } else if (nonZerosCounts.get(0) == 3) {
-                        return HandType.THREE_OF_A_KIND;
-                    }
-                } else if (nonZeroes.size() == 2) {
-                    // four of a kind or full-house
-                    if (nonZerosCounts.get(0) == 4) {
-                        return HandType.FOUR_OF_A_KIND;
-                    } else if (nonZerosCounts.get(0) == 3) {
-                        return HandType.FULL_HOUSE;
-                    }
-                } else if (nonZeroes.size() == 1) {
-                    return HandType.FIVE_OF_A_KIND;
-                }
-            } else {
-                if (nonZeroes.size() == 1) {
-                    return HandType.FIVE_OF_A_KIND;
-                }
-                if (nonZeroes.size() == 2) {
-                    if (nonZerosCounts.get(0) == 3) {
-                        // 3 same, one another, one J
-                        return HandType.FOUR_OF_A_KIND;
-                    } else if (nonZerosCounts.get(0) == 2 && nonZerosCounts.get(1) == 2) {
-                        // 2 same, 2 another, one J
-                        return HandType.FULL_HOUSE;
-                    } else if (nonZerosCounts.get(0) == 2 && nonZerosCounts.get(1) == 1) {
-                        // 2 same, 1 another, 2 J
-                        return HandType.FOUR_OF_A_KIND;
-                    } else if (nonZerosCounts.get(0) == 1) {
-                        // 1 same, 1 another, 3 J
-                        return HandType.FOUR_OF_A_KIND;
-                    }
+            long counts = 0;
+            int jokers = 0;
+            for (int i = 0; i < cards.size(); i++) {
+                Card card = cards.get(i);
+                if (card == Card.CJ) {
+                    jokers++;
+                } else {
+                    counts += 1L << (card.ordinal() * 4);
                 }
-                if (nonZeroes.size() == 3) {
-                    if (nonZerosCounts.get(0) == 2 && nonZerosCounts.get(1) == 1 && nonZerosCounts.get(2) == 1) {
-                        // 2, 1, 1, J
-                        return HandType.THREE_OF_A_KIND;
-                    }
-                    if (nonZerosCounts.get(0) == 1) {
-                        return HandType.THREE_OF_A_KIND;
-                    }
-                }
-                if (nonZeroes.size() == 4) {
-                    // "best I can do is one pair"
-                    return HandType.ONE_PAIR;
-                }
-
             }
+            return classify(counts, jokers);
+        }
 
-            throw new IllegalStateException("oh noes: " + this.cards());
+        // hand type in the high bits, then each card value on 4 bits: keys sort like handComparator
+        int sortKey() {
+            int key = getHandType().getValue();
+            for (int i = 0; i < cards.size(); i++) {
+                key = (key << 4) | cards.get(i).getValue();
+            }
+            return key;
         }
 
         static Hand fromLine(String line) {
@@ -211,15 +216,109 @@ public class Day7Part2 {
         }
 
         int getWinnings() {
-            var sorted = hands.stream().sorted(handComparator).toList();
-            return IntStream.range(1, sorted.size() + 1).mapToObj(i -> i * sorted.get(i - 1).bid()).mapToInt(i -> i).sum();
+            // sort key in the high bits, position in the low bits to keep equal hands in input order
+            long[] keys = new long[hands.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = ((long) hands.get(i).sortKey() << 32) | i;
+            }
+            Arrays.sort(keys);
+            int winnings = 0;
+            for (int i = 0; i < keys.length; i++) {
+                winnings += (i + 1) * hands.get((int) keys[i]).bid();
+            }
+            return winnings;
+        }
+    }
+
+    // hands aggregated per possible cards, memory does not depend on the number of hands
+    static class HandBuckets {
+        private static final int HAND_COUNT = CARD_COUNT * CARD_COUNT * CARD_COUNT * CARD_COUNT * CARD_COUNT;
+        // cards by increasing value, the position is the card rank
+        private static final Card[] CARDS_BY_RANK = Arrays.stream(Card.values())
+                .sorted(cardComparator)
+                .toArray(Card[]::new);
+        private static final int[] RANK_BY_CHAR = buildRankByChar();
+
+        // hands are indexed by their card ranks as a base 13 number, first card being the most significant
+        private final int[] counts = new int[HAND_COUNT];
+        private final long[] bids = new long[HAND_COUNT];
+        // bids weighted by position among equal hands, equal hands stay ranked in input order
+        private final long[] positionedBids = new long[HAND_COUNT];
+
+        private static int[] buildRankByChar() {
+            int[] rankByChar = new int[128];
+            Arrays.fill(rankByChar, -1);
+            for (int rank = 0; rank < CARDS_BY_RANK.length; rank++) {
+                rankByChar[CARDS_BY_RANK[rank].toString().charAt(0)] = rank;
+            }
+            return rankByChar;
+        }
+
+        static HandBuckets from(Path path) {
+            var handBuckets = new HandBuckets();
+            FileUtils.forEachLine(path, handBuckets::add);
+            return handBuckets;
+        }
+
+        void add(String line) {
+            if (line.length() < 7 || line.charAt(5) != ' ') {
+                throw new IllegalArgumentException("oh noes: " + line);
+            }
+            int index = 0;
+            for (int i = 0; i < 5; i++) {
+                char c = line.charAt(i);
+                int rank = c < 128 ? RANK_BY_CHAR[c] : -1;
+                if (rank < 0) {
+                    throw new IllegalArgumentException("oh noes: " + c);
+                }
+                index = index * CARD_COUNT + rank;
+            }
+            int bid = Integer.parseInt(line, 6, line.length(), 10);
+            counts[index]++;
+            bids[index] += bid;
+            positionedBids[index] += (long) counts[index] * bid;
+        }
+
+        long getWinnings() {
+            // counting sort on hand type, stable so each type keeps the card ranks order
+            byte[] typeValues = new byte[HAND_COUNT];
+            int[] offsets = new int[HandType.FIVE_OF_A_KIND.getValue() + 2];
+            int[] handCounts = new int[CARD_COUNT];
+            for (int index = 0; index < HAND_COUNT; index++) {
+                Arrays.fill(handCounts, 0);
+                int jokers = 0;
+                for (int i = 0, rest = index; i < 5; i++, rest /= CARD_COUNT) {
+                    Card card = CARDS_BY_RANK[rest % CARD_COUNT];
+                    if (card == Card.CJ) {
+                        jokers++;
+                    } else {
+                        handCounts[card.ordinal()]++;
+                    }
+                }
+                typeValues[index] = (byte) classify(handCounts, jokers).getValue();
+                offsets[typeValues[index] + 1]++;
+            }
+            for (int i = 1; i < offsets.length; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+            int[] order = new int[HAND_COUNT];
+            for (int index = 0; index < HAND_COUNT; index++) {
+                order[offsets[typeValues[index]]++] = index;
+            }
+
+            long winnings = 0;
+            long rank = 0;
+            for (int index : order) {
+                winnings += rank * bids[index] + positionedBids[index];
+                rank += counts[index];
+            }
+            return winnings;
         }
     }
 
     public static void main(String[] args) {
-        var puzzle = Puzzle.build(FileUtils.readAllLines(Paths.get("data", "day7.txt")));
-        LOGGER.info("Part 2: {}", puzzle);
-        LOGGER.info("Part 2: {}", puzzle.getWinnings());
+        var handBuckets = HandBuckets.from(Paths.get("data", "day7.txt"));
+        LOGGER.info("Part 2: {}", handBuckets.getWinnings());
     }
 
 }
@@ -1,12 +1,15 @@
 package io.github.jeandemanged.aoc2023.day8;
 
 import io.github.jeandemanged.aoc2023.utils.FileUtils;
-import io.github.jeandemanged.aoc2023.utils.Utils;
+import io.github.jeandemanged.aoc2023.utils.MathUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.LongStream;
 
 public class Day8 {
 
@@ -32,80 +35,267 @@ public class Day8 {
         }
     }
 
+    // all steps t with t = remainder (mod modulus)
+    record Congruence(long remainder, long modulus) {
+        // generalized CRT, moduli don't need to be coprime, null if there is no common step
+        Congruence and(Congruence other) {
+            long[] combined = MathUtils.crt(remainder, modulus, other.remainder(), other.modulus());
+            return combined == null ? null : new Congruence(combined[0], combined[1]);
+        }
 
-    record Puzzle(String startingNode, List<LeftRight> instructions, Map<String, List<String>> map) {
-        Puzzle() {
-            this("AAA", new ArrayList<>(), new HashMap<>());
+        // smallest step not before from
+        long firstFrom(long from) {
+            if (remainder >= from) {
+                return remainder;
+            }
+            return Math.addExact(remainder, Math.multiplyExact(Math.ceilDiv(from - remainder, modulus), modulus));
         }
+    }
 
-        long getSteps() {
-            var currentNode = startingNode();
+    // steps where a walker is on a Z node: prefixHits happen once before the cycle,
+    // cycleHits (in [prefix, prefix + cycle)) happen again every cycle steps
+    record Walk(long prefix, long cycle, long[] prefixHits, long[] cycleHits) {
+        boolean hits(long step) {
+            if (step < prefix) {
+                return Arrays.binarySearch(prefixHits, step) >= 0;
+            }
+            return Arrays.binarySearch(cycleHits, prefix + (step - prefix) % cycle) >= 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Walk{" +
+                    "prefix=" + prefix +
+                    ", cycle=" + cycle +
+                    ", prefixHits=" + Arrays.toString(prefixHits) +
+                    ", cycleHits=" + Arrays.toString(cycleHits) +
+                    '}';
+        }
+    }
+
+    // sorted steps modulo modulus where walkers are in their cycle and on a Z node
+    record Residues(long modulus, long[] residues) {
+        static Residues of(Walk walk) {
+            return new Residues(walk.cycle(), Arrays.stream(walk.cycleHits()).map(hit -> hit % walk.cycle()).sorted().distinct().toArray());
+        }
+
+        // keeps the residues also matching other, whose modulus has to divide this one
+        Residues restrict(Residues other) {
+            return new Residues(modulus, Arrays.stream(residues).filter(r -> Arrays.binarySearch(other.residues(), r % other.modulus()) >= 0).toArray());
+        }
+
+        @Override
+        public String toString() {
+            return "Residues{" +
+                    "modulus=" + modulus +
+                    ", residues=" + residues.length +
+                    '}';
+        }
+
+        // one group per modulus not dividing a bigger one: walkers with the same cycle, or a dividing one,
+        // only remove residues instead of multiplying combinations. Fewest residues first, to prune early
+        static List<Residues> group(List<Walk> walks) {
+            List<Residues> sorted = walks.stream().map(Residues::of)
+                    .sorted(Comparator.comparingLong(Residues::modulus).reversed())
+                    .toList();
+            List<Residues> groups = new ArrayList<>();
+            for (Residues residues : sorted) {
+                int g = 0;
+                while (g < groups.size() && groups.get(g).modulus() % residues.modulus() != 0) {
+                    g++;
+                }
+                if (g < groups.size()) {
+                    groups.set(g, groups.get(g).restrict(residues));
+                } else {
+                    groups.add(residues);
+                }
+            }
+            groups.sort(Comparator.comparingInt(residues -> residues.residues().length));
+            return groups;
+        }
+    }
+
+    // nodes interned as indexes, instructions as LeftRight values: walking is only array lookups
+    record Network(byte[] instructions, int[] left, int[] right, BitSet startNodes, BitSet endNodes, String[] names) {
+        static Network build(List<String> lines) {
+            byte[] instructions = new byte[lines.get(0).length()];
+            for (int i = 0; i < instructions.length; i++) {
+                instructions[i] = (byte) LeftRight.fromString(String.valueOf(lines.get(0).charAt(i))).getValue();
+            }
+            int size = lines.size() - 2;
+            String[] names = new String[size];
+            Map<String, Integer> ids = new HashMap<>();
+            BitSet startNodes = new BitSet(size);
+            BitSet endNodes = new BitSet(size);
+            for (int i = 0; i < size; i++) {
+                String line = lines.get(i + 2);
+                names[i] = line.substring(0, line.indexOf(" = "));
+                ids.put(names[i], i);
+                if (names[i].endsWith("A")) {
+                    startNodes.set(i);
+                } else if (names[i].endsWith("Z")) {
+                    endNodes.set(i);
+                }
+            }
+            int[] left = new int[size];
+            int[] right = new int[size];
+            for (int i = 0; i < size; i++) {
+                String line = lines.get(i + 2);
+                int open = line.indexOf('(');
+                int comma = line.indexOf(", ", open);
+                left[i] = id(ids, line.substring(open + 1, comma));
+                right[i] = id(ids, line.substring(comma + 2, line.indexOf(')', comma)));
+            }
+            return new Network(instructions, left, right, startNodes, endNodes, names);
+        }
+
+        private static int id(Map<String, Integer> ids, String name) {
+            Integer id = ids.get(name);
+            if (id == null) {
+                throw new IllegalArgumentException("oh noes: " + name);
+            }
+            return id;
+        }
+
+        int indexOf(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("oh noes: " + name);
+        }
+
+        long steps(int node, BitSet targets) {
             long currentSteps = 0;
-            int instructionPos = -1;
-            while (!"ZZZ".equals(currentNode)) {
-                instructionPos = (instructionPos + 1) % instructions().size();
-                LeftRight currentInstruction = instructions().get(instructionPos);
-                currentNode = map.get(currentNode).get(currentInstruction.getValue());
+            int instructionPos = 0;
+            while (!targets.get(node)) {
+                node = instructions[instructionPos] == 0 ? left[node] : right[node];
                 currentSteps++;
+                if (++instructionPos == instructions.length) {
+                    instructionPos = 0;
+                }
             }
             return currentSteps;
         }
 
-        // doesn't make it
-        long getSteps2() {
-            var startingNodes = map().keySet().stream().filter(s -> s.endsWith("A")).toList();
-            List<String> currentNodes = new ArrayList<>(startingNodes);
-            long currentSteps = 0;
-            int instructionPos = -1;
-            while (!currentNodes.stream().allMatch(n -> n.endsWith("Z"))) {
-                instructionPos = (instructionPos + 1) % instructions().size();
-                LeftRight currentInstruction = instructions().get(instructionPos);
-                for (int i = 0; i < currentNodes.size(); i++) {
-                    String node = currentNodes.get(i);
-                    currentNodes.set(i, map.get(node).get(currentInstruction.getValue()));
+        long getSteps() {
+            BitSet target = new BitSet(names.length);
+            target.set(indexOf("ZZZ"));
+            return steps(indexOf("AAA"), target);
+        }
+
+        // walker state is node and instruction position, packed as node * instructions + position
+        private long next(long state) {
+            int node = (int) (state / instructions.length);
+            int instructionPos = (int) (state % instructions.length);
+            int nextNode = instructions[instructionPos] == 0 ? left[node] : right[node];
+            return (long) nextNode * instructions.length + (instructionPos + 1) % instructions.length;
+        }
+
+        // Brent's cycle detection on the walker states, then one more walk to collect the Z steps
+        Walk walk(int startNode) {
+            long start = (long) startNode * instructions.length;
+            long power = 1;
+            long cycle = 1;
+            long tortoise = start;
+            long hare = next(start);
+            while (tortoise != hare) {
+                if (power == cycle) {
+                    tortoise = hare;
+                    power *= 2;
+                    cycle = 0;
                 }
-                currentSteps++;
+                hare = next(hare);
+                cycle++;
+            }
+            tortoise = start;
+            hare = start;
+            for (long i = 0; i < cycle; i++) {
+                hare = next(hare);
+            }
+            long prefix = 0;
+            while (tortoise != hare) {
+                tortoise = next(tortoise);
+                hare = next(hare);
+                prefix++;
+            }
+            var prefixHits = LongStream.builder();
+            var cycleHits = LongStream.builder();
+            long state = start;
+            for (long step = 0; step < prefix + cycle; step++) {
+                if (endNodes.get((int) (state / instructions.length))) {
+                    (step < prefix ? prefixHits : cycleHits).add(step);
+                }
+                state = next(state);
+            }
+            return new Walk(prefix, cycle, prefixHits.build().toArray(), cycleHits.build().toArray());
+        }
+
+        // walkers are independent, at most parallelism of them run at the same time.
+        // join rethrows a failing walk's exception as is, with its cause
+        List<Walk> walks(int parallelism) {
+            try (var pool = new ForkJoinPool(parallelism)) {
+                List<ForkJoinTask<Walk>> tasks = startNodes.stream().mapToObj(node -> pool.submit(() -> walk(node))).toList();
+                return tasks.stream().map(ForkJoinTask::join).toList();
             }
-            return currentSteps;
         }
 
-        long getSteps3() {
-            var startingNodes = map().keySet().stream().filter(s -> s.endsWith("A")).toList();
-            Map<String, Long> steps = new HashMap<>();
-            startingNodes.forEach(sn -> {
-                var currentNode = sn;
-                long currentSteps = 0;
-                int instructionPos = -1;
-                while (!currentNode.endsWith("Z")) {
-                    instructionPos = (instructionPos + 1) % instructions().size();
-                    LeftRight currentInstruction = instructions().get(instructionPos);
-                    currentNode = map.get(currentNode).get(currentInstruction.getValue());
-                    currentSteps++;
+        long getGhostSteps() {
+            return getGhostSteps(Runtime.getRuntime().availableProcessors());
+        }
+
+        // first step where all walkers are on a Z node, whatever the shape of their cycles
+        long getGhostSteps(int parallelism) {
+            List<Walk> walks = walks(parallelism);
+            LOGGER.debug("{}", walks);
+            long best = Long.MAX_VALUE;
+            // some walker not yet in its cycle: has to be one of its prefix hits
+            for (Walk walk : walks) {
+                for (long step : walk.prefixHits()) {
+                    if (step < best && walks.stream().allMatch(w -> w.hits(step))) {
+                        best = step;
+                    }
                 }
-                steps.put(sn, currentSteps);
-            });
-            LOGGER.info("{}", steps);
-            return steps.values().stream().reduce(1L, Utils::lcm);
+            }
+            // all walkers in their cycles: one congruence per residue group, for each combination of residues
+            long from = walks.stream().mapToLong(Walk::prefix).max().orElse(0);
+            List<Residues> groups = Residues.group(walks);
+            LOGGER.debug("{}", groups);
+            best = firstCommonStep(groups, 0, new Congruence(0, 1), from, best);
+            if (best == Long.MAX_VALUE) {
+                throw new IllegalStateException("Walkers never all end on Z nodes");
+            }
+            return best;
         }
 
-        static Puzzle build(List<String> lines) {
-            var puzzle = new Puzzle();
-            puzzle.instructions().addAll(lines.get(0).chars().mapToObj(c -> LeftRight.fromString(String.valueOf((char) c))).toList());
-            for (int i = 2; i < lines.size(); i++) {
-                String line = lines.get(i);
-                var eqSplit = line.split(" = ");
-                var start = eqSplit[0];
-                var lr = eqSplit[1].replace(" ", "").replace("(", "").replace(")", "").split(",");
-                puzzle.map().put(start, List.of(lr[0], lr[1]));
+        // depth first over one residue per group. Refining a congruence only removes steps, so its first step
+        // from `from` bounds every combination below it: branches that can't beat best are cut.
+        // Worst case, when nothing gets cut (no common step, yet all residues pairwise compatible),
+        // is still the product of the residue counts of the groups
+        private static long firstCommonStep(List<Residues> groups, int i, Congruence congruence, long from, long best) {
+            long first = congruence.firstFrom(from);
+            if (first >= best) {
+                return best;
+            }
+            if (i == groups.size()) {
+                return first;
+            }
+            Residues group = groups.get(i);
+            for (long residue : group.residues()) {
+                var combined = congruence.and(new Congruence(residue, group.modulus()));
+                if (combined != null) {
+                    best = firstCommonStep(groups, i + 1, combined, from, best);
+                }
             }
-            return puzzle;
+            return best;
         }
     }
 
     public static void main(String[] args) {
-        var puzzle = Puzzle.build(FileUtils.readAllLines(Paths.get("data", "day8.txt")));
-        LOGGER.info("Part 1: {}", puzzle.getSteps());
-        LOGGER.info("Part 2: {}", puzzle.getSteps3());
+        var network = Network.build(FileUtils.readAllLines(Paths.get("data", "day8.txt")));
+        LOGGER.info("Part 1: {}", network.getSteps());
+        LOGGER.info("Part 2: {}", network.getGhostSteps());
     }
 
 }
@@ -4,10 +4,14 @@ import io.github.jeandemanged.aoc2023.utils.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Day9 {
 
@@ -64,6 +68,126 @@ public class Day9 {
         }
     }
 
+    // predictions are linear combinations of the values, with binomial weights only depending on the length:
+    // next = sum (-1)^(length - 1 - i) * C(length, i) * values[i], before = sum (-1)^i * C(length, i + 1) * values[i]
+    record Extrapolation(long[] nextWeights, long[] beforeWeights) {
+        private static final Map<Integer, Extrapolation> CACHE = new ConcurrentHashMap<>();
+
+        static Extrapolation forLength(int length) {
+            return CACHE.computeIfAbsent(length, Extrapolation::build);
+        }
+
+        private static Extrapolation build(int length) {
+            // Pascal's rule only adds: from 62 values on the weights wrap around, but stay exact mod 2^64,
+            // and so does any prediction that fits in a long
+            long[] binomials = new long[length + 1];
+            binomials[0] = 1;
+            for (int n = 1; n <= length; n++) {
+                for (int k = n; k > 0; k--) {
+                    binomials[k] += binomials[k - 1];
+                }
+            }
+            long[] nextWeights = new long[length];
+            long[] beforeWeights = new long[length];
+            for (int i = 0; i < length; i++) {
+                nextWeights[i] = (length - 1 - i) % 2 == 0 ? binomials[i] : -binomials[i];
+                beforeWeights[i] = i % 2 == 0 ? binomials[i + 1] : -binomials[i + 1];
+            }
+            return new Extrapolation(nextWeights, beforeWeights);
+        }
+
+        // predictions[0] is the value before, predictions[1] the next one
+        void predict(long[] values, long[] predictions) {
+            long before = 0;
+            long next = 0;
+            for (int i = 0; i < nextWeights.length; i++) {
+                before += beforeWeights[i] * values[i];
+                next += nextWeights[i] * values[i];
+            }
+            predictions[0] = before;
+            predictions[1] = next;
+        }
+    }
+
+    // histories of the same length laid out column-major: value i of history h is values[i * count + h]
+    record Batch(int length, int count, long[] values) {
+        // the JVM needs --add-modules jdk.incubator.vector, otherwise the scalar loop is used
+        static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+        static Batch of(List<long[]> histories) {
+            int length = histories.get(0).length;
+            int count = histories.size();
+            long[] values = new long[length * count];
+            for (int h = 0; h < count; h++) {
+                long[] history = histories.get(h);
+                if (history.length != length) {
+                    throw new IllegalArgumentException("History " + h + " has length " + history.length + ", expected " + length);
+                }
+                for (int i = 0; i < length; i++) {
+                    values[i * count + h] = history[i];
+                }
+            }
+            return new Batch(length, count, values);
+        }
+
+        // one batch per history length, in order of first appearance
+        static List<Batch> fromLines(List<String> lines) {
+            Map<Integer, List<long[]>> byLength = new LinkedHashMap<>();
+            for (String line : lines) {
+                if (!line.isBlank()) {
+                    long[] history = Arrays.stream(line.trim().split(" +")).mapToLong(Long::parseLong).toArray();
+                    byLength.computeIfAbsent(history.length, length -> new ArrayList<>()).add(history);
+                }
+            }
+            return byLength.values().stream().map(Batch::of).toList();
+        }
+
+        void predict(long[] befores, long[] nexts) {
+            var extrapolation = Extrapolation.forLength(length);
+            if (VECTOR_AVAILABLE) {
+                VectorBatch.predict(this, extrapolation, befores, nexts);
+            } else {
+                predictScalar(extrapolation, 0, count, befores, nexts);
+            }
+        }
+
+        void predictScalar(Extrapolation extrapolation, int from, int to, long[] befores, long[] nexts) {
+            for (int h = from; h < to; h++) {
+                long before = 0;
+                long next = 0;
+                for (int i = 0; i < length; i++) {
+                    long value = values[i * count + h];
+                    before += extrapolation.beforeWeights()[i] * value;
+                    next += extrapolation.nextWeights()[i] * value;
+                }
+                befores[h] = before;
+                nexts[h] = next;
+            }
+        }
+    }
+
+    // same result as History, but in place on values[0, length), which is overwritten
+    static void extrapolate(long[] values, int length, long[] predictions) {
+        long before = 0;
+        long next = 0;
+        long sign = 1;
+        for (int size = length; size > 0; size--) {
+            before += sign * values[0];
+            next += values[size - 1];
+            sign = -sign;
+            boolean allZeros = true;
+            for (int i = 0; i < size - 1; i++) {
+                values[i] = values[i + 1] - values[i];
+                allZeros &= values[i] == 0;
+            }
+            if (allZeros) {
+                break;
+            }
+        }
+        predictions[0] = before;
+        predictions[1] = next;
+    }
+
     record Puzzle(List<History> historyList) {
         static Puzzle build(List<String> lines) {
             var puzzle = new Puzzle(new ArrayList<>());
@@ -84,13 +208,86 @@ public class Day9 {
         return list.stream().allMatch(l -> 0L == l);
     }
 
-    public static void main(String[] args) {
-        var puzzle = Puzzle.build(FileUtils.readAllLines(Paths.get("data", "day9.txt")));
+    // one pass over a file of any size: each line is parsed in a reused buffer and only the sums are kept
+    static class StreamingSums {
+        private long[] buffer = new long[32];
+        private final long[] predictions = new long[2];
+        private long next;
+        private long before;
+
+        static StreamingSums from(Path path) {
+            var sums = new StreamingSums();
+            FileUtils.forEachLine(path, sums::add);
+            return sums;
+        }
+
+        void add(String line) {
+            int length = parse(line);
+            if (length == 0) {
+                return;
+            }
+            Extrapolation.forLength(length).predict(buffer, predictions);
+            before += predictions[0];
+            next += predictions[1];
+        }
 
-        long part1 = puzzle.historyList().stream().mapToLong(History::predictNext).sum();
-        LOGGER.info("Part 1: {}", part1);
-        long part2 = puzzle.historyList().stream().mapToLong(History::predictBefore).sum();
-        LOGGER.info("Part 2: {}", part2);
+        private int parse(String line) {
+            int length = 0;
+            long value = 0;
+            boolean negative = false;
+            boolean inNumber = false;
+            for (int i = 0; i <= line.length(); i++) {
+                char c = i < line.length() ? line.charAt(i) : ' ';
+                if (c >= '0' && c <= '9') {
+                    value = value * 10 + (c - '0');
+                    inNumber = true;
+                } else if (c == '-' && !inNumber && !negative) {
+                    negative = true;
+                } else if (c == ' ' && (inNumber || !negative)) {
+                    if (inNumber) {
+                        if (length == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, length * 2);
+                        }
+                        buffer[length++] = negative ? -value : value;
+                    }
+                    value = 0;
+                    negative = false;
+                    inNumber = false;
+                } else {
+                    throw new IllegalArgumentException("Invalid history: " + line);
+                }
+            }
+            return length;
+        }
+
+        long next() {
+            return next;
+        }
+
+        long before() {
+            return before;
+        }
+    }
+
+    public static void main(String[] args) {
+        var path = Paths.get("data", "day9.txt");
+        var sums = StreamingSums.from(path);
+        LOGGER.info("Part 1: {}", sums.next());
+        LOGGER.info("Part 2: {}", sums.before());
+        if (Boolean.getBoolean("day9.batch")) {
+            // opt-in: whole file in memory, histories of the same length predicted together
+            long next = 0;
+            long before = 0;
+            for (Batch batch : Batch.fromLines(FileUtils.readAllLines(path))) {
+                long[] befores = new long[batch.count()];
+                long[] nexts = new long[batch.count()];
+                batch.predict(befores, nexts);
+                next += Arrays.stream(nexts).sum();
+                before += Arrays.stream(befores).sum();
+            }
+            LOGGER.info("Part 1 (batch, vector={}): {}", Batch.VECTOR_AVAILABLE, next);
+            LOGGER.info("Part 2 (batch, vector={}): {}", Batch.VECTOR_AVAILABLE, before);
+        }
     }
 
 }
@@ -0,0 +1,35 @@
+package io.github.jeandemanged.aoc2023.day9;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorSpecies;
+
+// only loaded when jdk.incubator.vector is available, see Day9.Batch
+final class VectorBatch {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    private VectorBatch() {
+    }
+
+    static void predict(Day9.Batch batch, Day9.Extrapolation extrapolation, long[] befores, long[] nexts) {
+        long[] values = batch.values();
+        int count = batch.count();
+        long[] nextWeights = extrapolation.nextWeights();
+        long[] beforeWeights = extrapolation.beforeWeights();
+        int upperBound = SPECIES.loopBound(count);
+        int h = 0;
+        for (; h < upperBound; h += SPECIES.length()) {
+            var before = LongVector.zero(SPECIES);
+            var next = LongVector.zero(SPECIES);
+            for (int i = 0; i < nextWeights.length; i++) {
+                var column = LongVector.fromArray(SPECIES, values, i * count + h);
+                before = column.mul(beforeWeights[i]).add(before);
+                next = column.mul(nextWeights[i]).add(next);
+            }
+            before.intoArray(befores, h);
+            next.intoArray(nexts, h);
+        }
+        // remaining histories not filling a whole vector
+        batch.predictScalar(extrapolation, h, count, befores, nexts);
+    }
+}
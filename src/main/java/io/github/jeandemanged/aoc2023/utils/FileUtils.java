@@ -5,6 +5,7 @@ import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
 
 public final class FileUtils {
     private FileUtils() {
@@ -18,4 +19,12 @@ public final class FileUtils {
         }
     }
 
+    public static void forEachLine(Path path, Consumer<String> consumer) {
+        try (var lines = Files.lines(path)) {
+            lines.forEach(consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 }
@@ -0,0 +1,125 @@
+package io.github.jeandemanged.aoc2023.utils;
+
+import java.math.BigInteger;
+
+public final class MathUtils {
+
+    private MathUtils() {
+    }
+
+    // binary GCD (Stein), only shifts and subtractions
+    public static long gcd(long number1, long number2) {
+        long a = Math.absExact(number1);
+        long b = Math.absExact(number2);
+        if (a == 0) {
+            return b;
+        }
+        if (b == 0) {
+            return a;
+        }
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>= Long.numberOfTrailingZeros(a);
+        do {
+            b >>= Long.numberOfTrailingZeros(b);
+            if (a > b) {
+                long tmp = a;
+                a = b;
+                b = tmp;
+            }
+            b -= a;
+        } while (b != 0);
+        return a << shift;
+    }
+
+    public static long gcdEuclid(long number1, long number2) {
+        long a = Math.absExact(number1);
+        long b = Math.absExact(number2);
+        while (b != 0) {
+            long tmp = a % b;
+            a = b;
+            b = tmp;
+        }
+        return a;
+    }
+
+    // throws ArithmeticException if it doesn't fit in a long, see lcmBig
+    public static long lcm(long number1, long number2) {
+        if (number1 == 0 || number2 == 0) {
+            return 0;
+        }
+        return Math.multiplyExact(Math.absExact(number1) / gcd(number1, number2), Math.absExact(number2));
+    }
+
+    public static long lcm(long... numbers) {
+        long lcm = 1;
+        for (long number : numbers) {
+            lcm = lcm(lcm, number);
+        }
+        return lcm;
+    }
+
+    public static BigInteger lcmBig(long... numbers) {
+        BigInteger lcm = BigInteger.ONE;
+        for (long number : numbers) {
+            if (number == 0) {
+                return BigInteger.ZERO;
+            }
+            var n = BigInteger.valueOf(number).abs();
+            lcm = lcm.divide(lcm.gcd(n)).multiply(n);
+        }
+        return lcm;
+    }
+
+    // (a * b) mod modulus, without overflowing
+    public static long mulMod(long a, long b, long modulus) {
+        long x = Math.floorMod(a, modulus);
+        long y = Math.floorMod(b, modulus);
+        long high = Math.multiplyHigh(x, y);
+        long low = x * y;
+        if (high == 0 && low >= 0) {
+            return low % modulus;
+        }
+        return BigInteger.valueOf(x).multiply(BigInteger.valueOf(y)).mod(BigInteger.valueOf(modulus)).longValue();
+    }
+
+    // extended Euclid, throws ArithmeticException if number and modulus are not coprime
+    public static long modInverse(long number, long modulus) {
+        if (modulus <= 0) {
+            throw new ArithmeticException("Modulus not positive: " + modulus);
+        }
+        long oldR = Math.floorMod(number, modulus);
+        long r = modulus;
+        long oldS = 1;
+        long s = 0;
+        while (r != 0) {
+            long quotient = oldR / r;
+            long tmp = r;
+            r = oldR - quotient * r;
+            oldR = tmp;
+            tmp = s;
+            s = oldS - quotient * s;
+            oldS = tmp;
+        }
+        if (oldR != 1 && modulus != 1) {
+            throw new ArithmeticException(number + " has no inverse modulo " + modulus);
+        }
+        return Math.floorMod(oldS, modulus);
+    }
+
+    // generalized CRT: t = remainder1 (mod modulus1) and t = remainder2 (mod modulus2), moduli don't need to be coprime.
+    // returns {remainder, lcm(modulus1, modulus2)}, null if there is no solution
+    public static long[] crt(long remainder1, long modulus1, long remainder2, long modulus2) {
+        long r1 = Math.floorMod(remainder1, modulus1);
+        long r2 = Math.floorMod(remainder2, modulus2);
+        long gcd = gcd(modulus1, modulus2);
+        long diff = r2 - r1;
+        if (diff % gcd != 0) {
+            return null;
+        }
+        long m2OverGcd = modulus2 / gcd;
+        long lcm = Math.multiplyExact(modulus1, m2OverGcd);
+        long k = mulMod(diff / gcd, modInverse(modulus1 / gcd, m2OverGcd), m2OverGcd);
+        // r1 < modulus1 and k < m2OverGcd, so this is below lcm
+        return new long[]{r1 + modulus1 * k, lcm};
+    }
+}
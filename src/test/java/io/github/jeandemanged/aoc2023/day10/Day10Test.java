@@ -0,0 +1,81 @@
+package io.github.jeandemanged.aoc2023.day10;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Day10Test {
+
+    private static void assertLoop(List<String> lines, int steps, long inside) {
+        var grid = Day10.Grid.build(lines);
+        var loop = new BitSet(grid.cells().length);
+        assertEquals(steps, grid.walkLoop(loop) / 2);
+        assertEquals(inside, grid.countInside(loop));
+        assertEquals(inside, grid.countInsideParallel(loop));
+    }
+
+    @Test
+    void sample() {
+        assertLoop(List.of(
+                "..F7.",
+                ".FJ|.",
+                "SJ.L7",
+                "|F--J",
+                "LJ..."), 8, 1);
+    }
+
+    @Test
+    void threeNeighboursConnectToStart() {
+        assertLoop(List.of(
+                "......",
+                ".F-7..",
+                ".|.|..",
+                "-S-J..",
+                "......"), 4, 1);
+    }
+
+    @Test
+    void fourNeighboursConnectToStart() {
+        assertLoop(List.of(
+                "......",
+                ".F-7..",
+                ".|.|..",
+                "-S-J..",
+                ".|...."), 4, 1);
+    }
+
+    // the north and east neighbours lead nowhere, only south and west close the loop
+    @Test
+    void onlyLastPairCloses() {
+        var lines = List.of(
+                "..|...",
+                ".FS-..",
+                ".||...",
+                ".LJ...");
+        var grid = Day10.Grid.build(lines);
+        assertEquals(Day10.SOUTH | Day10.WEST, grid.cells()[grid.start()]);
+        assertLoop(lines, 3, 0);
+    }
+
+    @Test
+    void raggedLinesAreRejected() {
+        for (var lines : List.of(
+                List.of(".F7.", ".SJ..", "...."),
+                List.of(".F7.", ".SJ", "...."))) {
+            var exception = assertThrows(IllegalArgumentException.class, () -> Day10.Grid.build(lines));
+            assertEquals("Line 1 has length " + lines.get(1).length() + ", expected 4", exception.getMessage());
+        }
+    }
+
+    @Test
+    void noLoopThroughStart() {
+        assertThrows(IllegalStateException.class, () -> Day10.Grid.build(List.of(
+                ".|.",
+                "-S-",
+                ".|.")));
+    }
+}
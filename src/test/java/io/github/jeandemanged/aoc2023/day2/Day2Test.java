@@ -0,0 +1,61 @@
+package io.github.jeandemanged.aoc2023.day2;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Day2Test {
+
+    private static final List<String> SAMPLE = List.of(
+            "Game 1: 3 blue, 4 red; 1 red, 2 green, 6 blue; 2 green",
+            "Game 2: 1 blue, 2 green; 3 green, 4 blue, 1 red; 1 green, 1 blue",
+            "Game 3: 8 green, 6 blue, 20 red; 5 blue, 4 red, 13 green; 5 green, 1 red",
+            "Game 4: 1 green, 3 red, 6 blue; 3 green, 6 red; 3 green, 15 blue, 14 red",
+            "Game 5: 6 red, 1 blue, 3 green; 2 blue, 1 red, 2 green");
+
+    @Test
+    void sample() {
+        var games = Day2.Games.load(SAMPLE);
+        assertEquals(8, games.sumPossible(12, 13, 14));
+        assertEquals(2286, games.sumPower());
+    }
+
+    @Test
+    void parseGame() {
+        int[] game = new int[4];
+        Day2.parseGame("Game 13: 20 red; 5 blue, 4 red, 13 green; 5 green", game);
+        assertArrayEquals(new int[]{13, 20, 13, 5}, game);
+        Day2.parseGame("Game 7: 1 blue", game);
+        assertArrayEquals(new int[]{7, 0, 0, 1}, game);
+    }
+
+    @Test
+    void parseGameRejectsMalformedLines() {
+        int[] game = new int[4];
+        for (String line : List.of("Gme 1: 3 blue", "Game : 3 blue", "Game 1 3 blue", "Game 1: blue", "Game 1: 3 purple", "Game 1: 3blue")) {
+            assertThrows(IllegalArgumentException.class, () -> Day2.parseGame(line, game), line);
+        }
+    }
+
+    // ids close to Integer.MAX_VALUE leave one game per int block
+    @Test
+    void largeIdsDontOverflow() {
+        var games = Day2.Games.load(List.of("Game 2000000000: 1 red", "Game 2000000001: 2 red", "Game 2000000002: 1 blue"));
+        assertEquals(1, games.block());
+        assertEquals(6_000_000_003L, games.sumPossible(2, 0, 1));
+        assertArrayEquals(new long[]{4_000_000_002L, 6_000_000_003L}, games.sumPossible(new int[][]{{1, 0, 1}, {2, 0, 1}}));
+    }
+
+    @Test
+    void batchMatchesSingleQueries() {
+        var games = GamesBenchmark.randomGames(new Random(2), 10_000);
+        int[][] limits = GamesBenchmark.randomLimits(new Random(3), 300);
+        long[] sums = games.sumPossible(limits);
+        for (int s = 0; s < limits.length; s++) {
+            assertEquals(games.sumPossible(limits[s][0], limits[s][1], limits[s][2]), sums[s]);
+        }
+    }
+}
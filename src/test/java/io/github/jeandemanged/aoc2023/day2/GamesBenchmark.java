@@ -0,0 +1,76 @@
+package io.github.jeandemanged.aoc2023.day2;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// many bag-limit scenarios against the same game log: one scan per scenario vs the blocked batch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GamesBenchmark {
+
+    @Param({"1000", "1000000"})
+    private int gameCount;
+
+    private Day2.Games games;
+    private int[][] limits;
+
+    static Day2.Games randomGames(Random random, int count) {
+        String[] colors = {"red", "green", "blue"};
+        List<String> lines = new ArrayList<>(count);
+        for (int g = 1; g <= count; g++) {
+            StringBuilder line = new StringBuilder("Game ").append(g).append(':');
+            int reveals = 1 + random.nextInt(5);
+            for (int r = 0; r < reveals; r++) {
+                line.append(r == 0 ? " " : "; ");
+                for (int c = 0; c < colors.length; c++) {
+                    line.append(c == 0 ? "" : ", ").append(1 + random.nextInt(20)).append(' ').append(colors[c]);
+                }
+            }
+            lines.add(line.toString());
+        }
+        return Day2.Games.load(lines);
+    }
+
+    static int[][] randomLimits(Random random, int count) {
+        int[][] limits = new int[count][];
+        for (int s = 0; s < count; s++) {
+            limits[s] = new int[]{random.nextInt(22), random.nextInt(22), random.nextInt(22)};
+        }
+        return limits;
+    }
+
+    @Setup
+    public void setup() {
+        games = randomGames(new Random(2), gameCount);
+        limits = randomLimits(new Random(3), 1000);
+    }
+
+    @Benchmark
+    public long[] single() {
+        long[] sums = new long[limits.length];
+        for (int s = 0; s < limits.length; s++) {
+            sums[s] = games.sumPossible(limits[s][0], limits[s][1], limits[s][2]);
+        }
+        return sums;
+    }
+
+    @Benchmark
+    public long[] batch() {
+        return games.sumPossible(limits);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GamesBenchmark.class.getSimpleName()).build()).run();
+    }
+}
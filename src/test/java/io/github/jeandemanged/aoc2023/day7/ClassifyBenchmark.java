@@ -0,0 +1,83 @@
+package io.github.jeandemanged.aoc2023.day7;
+
+import io.github.jeandemanged.aoc2023.day7.Day7Part2.Card;
+import io.github.jeandemanged.aoc2023.day7.Day7Part2.Hand;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// lookup table classifier vs the legacy if/else tree, over all 13^5 hands.
+// Histograms and hands are built in setup, only the classification is timed
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassifyBenchmark {
+
+    private List<List<Card>> cards;
+    private Hand[] hands;
+    private int[][] counts;
+    private long[] packedCounts;
+    private int[] jokers;
+
+    @Setup
+    public void setup() {
+        cards = LegacyHandType.allHands();
+        hands = new Hand[cards.size()];
+        counts = new int[cards.size()][];
+        packedCounts = new long[cards.size()];
+        jokers = new int[cards.size()];
+        for (int h = 0; h < hands.length; h++) {
+            hands[h] = new Hand(cards.get(h), 0);
+            counts[h] = new int[Card.values().length];
+            for (Card card : cards.get(h)) {
+                if (card == Card.CJ) {
+                    jokers[h]++;
+                } else {
+                    counts[h][card.ordinal()]++;
+                    packedCounts[h] += 1L << (card.ordinal() * 4);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void lookupTable(Blackhole blackhole) {
+        for (int h = 0; h < counts.length; h++) {
+            blackhole.consume(Day7Part2.classify(counts[h], jokers[h]));
+        }
+    }
+
+    @Benchmark
+    public void lookupTablePacked(Blackhole blackhole) {
+        for (int h = 0; h < packedCounts.length; h++) {
+            blackhole.consume(Day7Part2.classify(packedCounts[h], jokers[h]));
+        }
+    }
+
+    // histogram counting included, as Hand does it
+    @Benchmark
+    public void handType(Blackhole blackhole) {
+        for (Hand hand : hands) {
+            blackhole.consume(hand.getHandType());
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (List<Card> hand : cards) {
+            blackhole.consume(LegacyHandType.of(hand));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ClassifyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.jeandemanged.aoc2023.day7;
+
+import io.github.jeandemanged.aoc2023.day7.Day7Part2.Card;
+import io.github.jeandemanged.aoc2023.day7.Day7Part2.Hand;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Day7Part2Test {
+
+    @Test
+    void classifyMatchesLegacyOnEveryHand() {
+        List<List<Card>> hands = LegacyHandType.allHands();
+        assertEquals(371293, hands.size());
+        for (List<Card> cards : hands) {
+            var expected = LegacyHandType.of(cards);
+            assertEquals(expected, new Hand(cards, 0).getHandType(), cards::toString);
+            int[] counts = new int[Card.values().length];
+            int jokers = 0;
+            for (Card card : cards) {
+                if (card == Card.CJ) {
+                    jokers++;
+                } else {
+                    counts[card.ordinal()]++;
+                }
+            }
+            assertEquals(expected, Day7Part2.classify(counts, jokers), cards::toString);
+        }
+    }
+
+    private static final List<String> SAMPLE = List.of(
+            "32T3K 765",
+            "T55J5 684",
+            "KK677 28",
+            "KTJJT 220",
+            "QQQJA 483");
+
+    @Test
+    void sample() {
+        assertEquals(5905, Day7Part2.Puzzle.build(SAMPLE).getWinnings());
+    }
+
+    @Test
+    void sampleHandBuckets() {
+        var handBuckets = new Day7Part2.HandBuckets();
+        SAMPLE.forEach(handBuckets::add);
+        assertEquals(5905, handBuckets.getWinnings());
+    }
+
+    // few distinct hands, so that identical hands with different bids have to keep their input order
+    @Test
+    void handBucketsMatchPuzzleWithRepeatedHands() {
+        Random random = new Random(7);
+        String cards = "AKQJT98765432";
+        for (int round = 0; round < 20; round++) {
+            List<String> distinct = new ArrayList<>();
+            for (int h = 0; h < 1 + random.nextInt(30); h++) {
+                StringBuilder hand = new StringBuilder();
+                for (int i = 0; i < 5; i++) {
+                    hand.append(cards.charAt(random.nextInt(cards.length())));
+                }
+                distinct.add(hand.toString());
+            }
+            List<String> lines = new ArrayList<>();
+            var handBuckets = new Day7Part2.HandBuckets();
+            for (int h = 0; h < 500; h++) {
+                String line = distinct.get(random.nextInt(distinct.size())) + " " + (1 + random.nextInt(1000));
+                lines.add(line);
+                handBuckets.add(line);
+            }
+            assertEquals(Day7Part2.Puzzle.build(lines).getWinnings(), handBuckets.getWinnings(), lines::toString);
+        }
+    }
+}
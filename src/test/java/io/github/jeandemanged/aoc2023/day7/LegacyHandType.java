@@ -0,0 +1,107 @@
+package io.github.jeandemanged.aoc2023.day7;
+
+import io.github.jeandemanged.aoc2023.day7.Day7Part2.Card;
+import io.github.jeandemanged.aoc2023.day7.Day7Part2.HandType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// the if/else classifier Day7Part2.classify replaced, kept as the reference to check it against
+final class LegacyHandType {
+
+    private LegacyHandType() {
+    }
+
+    static HandType of(List<Card> cards) {
+        Map<Card, Integer> count = new EnumMap<>(Card.class);
+        cards.forEach(card -> {
+            count.computeIfAbsent(card, c -> 0);
+            count.put(card, count.get(card) + 1);
+        });
+        var nonZeroes =
+                count.entrySet().stream()
+                        .filter(entry -> entry.getValue() != 0)
+                        .filter(entry -> entry.getKey() != Card.CJ)
+                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        var nonZerosCounts = nonZeroes.values().stream().sorted(Comparator.reverseOrder()).toList();
+        var numJokers = cards.stream().filter(c -> c == Card.CJ).count();
+        if (numJokers == 5) {
+            return HandType.FIVE_OF_A_KIND;
+        } else if (numJokers == 0) {
+            if (nonZeroes.size() == 5) {
+                return HandType.HIGH_CARD;
+            } else if (nonZeroes.size() == 4) {
+                return HandType.ONE_PAIR;
+            } else if (nonZeroes.size() == 3) {
+                if (nonZerosCounts.get(0) == 2 && nonZerosCounts.get(1) == 2) {
+                    return HandType.TWO_PAIR;
+                } else if (nonZerosCounts.get(0) == 3) {
+                    return HandType.THREE_OF_A_KIND;
+                }
+            } else if (nonZeroes.size() == 2) {
+                // four of a kind or full-house
+                if (nonZerosCounts.get(0) == 4) {
+                    return HandType.FOUR_OF_A_KIND;
+                } else if (nonZerosCounts.get(0) == 3) {
+                    return HandType.FULL_HOUSE;
+                }
+            } else if (nonZeroes.size() == 1) {
+                return HandType.FIVE_OF_A_KIND;
+            }
+        } else {
+            if (nonZeroes.size() == 1) {
+                return HandType.FIVE_OF_A_KIND;
+            }
+            if (nonZeroes.size() == 2) {
+                if (nonZerosCounts.get(0) == 3) {
+                    // 3 same, one another, one J
+                    return HandType.FOUR_OF_A_KIND;
+                } else if (nonZerosCounts.get(0) == 2 && nonZerosCounts.get(1) == 2) {
+                    // 2 same, 2 another, one J
+                    return HandType.FULL_HOUSE;
+                } else if (nonZerosCounts.get(0) == 2 && nonZerosCounts.get(1) == 1) {
+                    // 2 same, 1 another, 2 J
+                    return HandType.FOUR_OF_A_KIND;
+                } else if (nonZerosCounts.get(0) == 1) {
+                    // 1 same, 1 another, 3 J
+                    return HandType.FOUR_OF_A_KIND;
+                }
+            }
+            if (nonZeroes.size() == 3) {
+                if (nonZerosCounts.get(0) == 2 && nonZerosCounts.get(1) == 1 && nonZerosCounts.get(2) == 1) {
+                    // 2, 1, 1, J
+                    return HandType.THREE_OF_A_KIND;
+                }
+                if (nonZerosCounts.get(0) == 1) {
+                    return HandType.THREE_OF_A_KIND;
+                }
+            }
+            if (nonZeroes.size() == 4) {
+                // "best I can do is one pair"
+                return HandType.ONE_PAIR;
+            }
+        }
+        throw new IllegalStateException("oh noes: " + cards);
+    }
+
+    // every hand of 5 cards, 13^5 of them
+    static List<List<Card>> allHands() {
+        Card[] cards = Card.values();
+        int total = (int) Math.pow(cards.length, 5);
+        List<List<Card>> hands = new ArrayList<>(total);
+        for (int n = 0; n < total; n++) {
+            Card[] hand = new Card[5];
+            int rest = n;
+            for (int i = 0; i < 5; i++) {
+                hand[i] = cards[rest % cards.length];
+                rest /= cards.length;
+            }
+            hands.add(List.of(hand));
+        }
+        return hands;
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.jeandemanged.aoc2023.day9;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Day9Test {
+
+    @Test
+    void sample() {
+        var sums = new Day9.StreamingSums();
+        List.of("0 3 6 9 12 15", "1 3 6 10 15 21", "10 13 16 21 30 45").forEach(sums::add);
+        assertEquals(114, sums.next());
+        assertEquals(2, sums.before());
+    }
+
+    // long histories need weights past C(62, k), which don't fit in a long
+    @Test
+    void matchesHistoryOnLongHistories() {
+        Random random = new Random(9);
+        for (int length = 1; length <= 120; length++) {
+            // low degree polynomial, so that the predictions stay small
+            long[] coefficients = random.longs(1 + random.nextInt(4), -5, 6).toArray();
+            List<Long> values = new ArrayList<>();
+            for (long x = 0; x < length; x++) {
+                long value = 0;
+                for (long coefficient : coefficients) {
+                    value = value * x + coefficient;
+                }
+                values.add(value);
+            }
+            assertPredictions(values);
+        }
+    }
+
+    @Test
+    void matchesHistoryOnRandomValues() {
+        Random random = new Random(10);
+        for (int length = 1; length <= 120; length++) {
+            assertPredictions(Arrays.stream(random.longs(length, -1000, 1000).toArray()).boxed().toList());
+        }
+    }
+
+    // surefire adds the vector module, predict takes the LongVector path and predictScalar the fallback
+    @Test
+    void batchMatchesHistory() {
+        assertTrue(Day9.Batch.VECTOR_AVAILABLE);
+        Random random = new Random(11);
+        for (int length : new int[]{1, 6, 21, 70}) {
+            // counts around the vector lanes, so that both the vector loop and its scalar tail run
+            for (int count = 1; count <= 19; count++) {
+                List<long[]> histories = new ArrayList<>();
+                for (int h = 0; h < count; h++) {
+                    histories.add(random.longs(length, -1000, 1000).toArray());
+                }
+                var batch = Day9.Batch.of(histories);
+                long[] befores = new long[count];
+                long[] nexts = new long[count];
+                long[] scalarBefores = new long[count];
+                long[] scalarNexts = new long[count];
+                batch.predict(befores, nexts);
+                batch.predictScalar(Day9.Extrapolation.forLength(length), 0, count, scalarBefores, scalarNexts);
+                for (int h = 0; h < count; h++) {
+                    var values = Arrays.stream(histories.get(h)).boxed().toList();
+                    long next = new Day9.History(new ArrayList<>(values)).predictNext();
+                    long before = new Day9.History(new ArrayList<>(values)).predictBefore();
+                    assertEquals(next, nexts[h]);
+                    assertEquals(before, befores[h]);
+                    assertEquals(next, scalarNexts[h]);
+                    assertEquals(before, scalarBefores[h]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void batchFromLines() {
+        var batches = Day9.Batch.fromLines(List.of("0 3 6 9 12 15", "1 3 6 10 15 21", "", "1 2", "10 13 16 21 30 45"));
+        assertEquals(2, batches.size());
+        assertEquals(6, batches.get(0).length());
+        assertEquals(3, batches.get(0).count());
+        assertEquals(1, batches.get(1).count());
+        assertThrows(IllegalArgumentException.class, () -> Day9.Batch.of(List.of(new long[2], new long[3])));
+    }
+
+    private static void assertPredictions(List<Long> values) {
+        String line = values.stream().map(String::valueOf).collect(Collectors.joining(" "));
+        var sums = new Day9.StreamingSums();
+        sums.add(line);
+        assertEquals(new Day9.History(new ArrayList<>(values)).predictNext(), sums.next(), line);
+        assertEquals(new Day9.History(new ArrayList<>(values)).predictBefore(), sums.before(), line);
+
+        long[] inPlace = values.stream().mapToLong(Long::longValue).toArray();
+        long[] predictions = new long[2];
+        Day9.extrapolate(inPlace, inPlace.length, predictions);
+        assertEquals(sums.before(), predictions[0], line);
+        assertEquals(sums.next(), predictions[1], line);
+    }
+}
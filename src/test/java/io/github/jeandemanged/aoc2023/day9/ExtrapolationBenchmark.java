@@ -0,0 +1,92 @@
+package io.github.jeandemanged.aoc2023.day9;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// next and before predictions of histories sharing a length: History lists vs in place vs column-major batch
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ExtrapolationBenchmark {
+
+    @Param({"21"})
+    private int length;
+
+    @Param({"200", "10000"})
+    private int count;
+
+    private List<List<Long>> lists;
+    private long[][] histories;
+    private long[] scratch;
+    private Day9.Batch batch;
+    private long[] befores;
+    private long[] nexts;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(9);
+        lists = new ArrayList<>(count);
+        histories = new long[count][];
+        for (int h = 0; h < count; h++) {
+            // low degree polynomial like the puzzle histories
+            long a = random.nextInt(11) - 5;
+            long b = random.nextInt(21) - 10;
+            long c = random.nextInt(41) - 20;
+            histories[h] = new long[length];
+            for (int x = 0; x < length; x++) {
+                histories[h][x] = (a * x + b) * x + c;
+            }
+            lists.add(Arrays.stream(histories[h]).boxed().toList());
+        }
+        scratch = new long[length];
+        batch = Day9.Batch.of(List.of(histories));
+        befores = new long[count];
+        nexts = new long[count];
+    }
+
+    @Benchmark
+    public void history(Blackhole blackhole) {
+        for (List<Long> list : lists) {
+            blackhole.consume(new Day9.History(new ArrayList<>(list)).predictNext());
+        }
+    }
+
+    @Benchmark
+    public void inPlace(Blackhole blackhole) {
+        long[] predictions = new long[2];
+        for (long[] history : histories) {
+            System.arraycopy(history, 0, scratch, 0, length);
+            Day9.extrapolate(scratch, length, predictions);
+            blackhole.consume(predictions[1]);
+        }
+    }
+
+    @Benchmark
+    public long[] batchScalar() {
+        batch.predictScalar(Day9.Extrapolation.forLength(length), 0, count, befores, nexts);
+        return nexts;
+    }
+
+    // vector lanes when the forked JVM has the module, which jvmArgsAppend takes care of
+    @Benchmark
+    public long[] batch() {
+        batch.predict(befores, nexts);
+        return nexts;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ExtrapolationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.jeandemanged.aoc2023.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// MathUtils.lcm vs the additive loop Utils.lcm used to run, on pairs shaped like Day8 cycle lengths
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LcmBenchmark {
+
+    // common instruction length times a per walker factor
+    @Param({"263", "1"})
+    private long common;
+
+    private long[] numbers;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(8);
+        numbers = new long[1024];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = common * (40 + random.nextInt(60));
+        }
+    }
+
+    // the loop Utils.lcm had before delegating to MathUtils
+    static long legacyLcm(long number1, long number2) {
+        if (number1 == 0 || number2 == 0) {
+            return 0;
+        }
+        long absNumber1 = Math.abs(number1);
+        long absNumber2 = Math.abs(number2);
+        long absHigherNumber = Math.max(absNumber1, absNumber2);
+        long absLowerNumber = Math.min(absNumber1, absNumber2);
+        long lcm = absHigherNumber;
+        while (lcm % absLowerNumber != 0) {
+            lcm += absHigherNumber;
+        }
+        return lcm;
+    }
+
+    @Benchmark
+    public void mathUtils(Blackhole blackhole) {
+        for (int i = 1; i < numbers.length; i++) {
+            blackhole.consume(MathUtils.lcm(numbers[i - 1], numbers[i]));
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (int i = 1; i < numbers.length; i++) {
+            blackhole.consume(legacyLcm(numbers[i - 1], numbers[i]));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LcmBenchmark.class.getSimpleName()).build()).run();
+    }
+}
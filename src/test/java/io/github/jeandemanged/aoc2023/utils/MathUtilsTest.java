@@ -0,0 +1,103 @@
+package io.github.jeandemanged.aoc2023.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MathUtilsTest {
+
+    @Test
+    void gcdMatchesEuclid() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long a = random.nextLong() >> random.nextInt(63);
+            long b = random.nextLong() >> random.nextInt(63);
+            assertEquals(MathUtils.gcdEuclid(a, b), MathUtils.gcd(a, b), a + ", " + b);
+        }
+        assertEquals(7, MathUtils.gcd(0, -7));
+        assertEquals(0, MathUtils.gcd(0, 0));
+    }
+
+    @Test
+    void lcmMatchesLegacyLoop() {
+        Random random = new Random(2);
+        for (int i = 0; i < 10_000; i++) {
+            long a = random.nextInt(20_000) - 10_000;
+            long b = random.nextInt(20_000) - 10_000;
+            assertEquals(LcmBenchmark.legacyLcm(a, b), MathUtils.lcm(a, b), a + ", " + b);
+        }
+        assertEquals(BigInteger.valueOf(MathUtils.lcm(12, 18, 20)), MathUtils.lcmBig(12, 18, 20));
+    }
+
+    @Test
+    void lcmOverflowThrows() {
+        assertThrows(ArithmeticException.class, () -> MathUtils.lcm(Long.MAX_VALUE, Long.MAX_VALUE - 1));
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(Long.MAX_VALUE - 1)),
+                MathUtils.lcmBig(Long.MAX_VALUE, Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    void mulModMatchesBigInteger() {
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            long a = random.nextLong();
+            long b = random.nextLong();
+            long modulus = 1 + (random.nextLong() >>> (1 + random.nextInt(62)));
+            long expected = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).mod(BigInteger.valueOf(modulus)).longValue();
+            assertEquals(expected, MathUtils.mulMod(a, b, modulus), a + " * " + b + " mod " + modulus);
+        }
+    }
+
+    @Test
+    void modInverseMatchesBigInteger() {
+        Random random = new Random(4);
+        for (int i = 0; i < 100_000; i++) {
+            long number = random.nextLong();
+            long modulus = 1 + (random.nextLong() >>> (1 + random.nextInt(62)));
+            BigInteger bigModulus = BigInteger.valueOf(modulus);
+            if (BigInteger.valueOf(number).gcd(bigModulus).equals(BigInteger.ONE)) {
+                long expected = BigInteger.valueOf(number).modInverse(bigModulus).longValue();
+                assertEquals(expected, MathUtils.modInverse(number, modulus), number + " mod " + modulus);
+            } else {
+                assertThrows(ArithmeticException.class, () -> MathUtils.modInverse(number, modulus));
+            }
+        }
+        assertThrows(ArithmeticException.class, () -> MathUtils.modInverse(3, 0));
+    }
+
+    @Test
+    void crtMatchesBruteForce() {
+        for (long modulus1 = 1; modulus1 <= 24; modulus1++) {
+            for (long modulus2 = 1; modulus2 <= 24; modulus2++) {
+                long lcm = MathUtils.lcm(modulus1, modulus2);
+                for (long remainder1 = -modulus1; remainder1 < modulus1; remainder1++) {
+                    for (long remainder2 = -modulus2; remainder2 < modulus2; remainder2++) {
+                        long expected = -1;
+                        for (long t = 0; t < lcm && expected < 0; t++) {
+                            if (Math.floorMod(t - remainder1, modulus1) == 0 && Math.floorMod(t - remainder2, modulus2) == 0) {
+                                expected = t;
+                            }
+                        }
+                        long[] combined = MathUtils.crt(remainder1, modulus1, remainder2, modulus2);
+                        if (expected < 0) {
+                            assertNull(combined);
+                        } else {
+                            assertArrayEquals(new long[]{expected, lcm}, combined);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void crtLargeModuli() {
+        long modulus1 = 1_000_000_007L;
+        long modulus2 = 998_244_353L;
+        long t = 123_456_789_012_345_678L % (modulus1 * modulus2);
+        assertArrayEquals(new long[]{t, modulus1 * modulus2}, MathUtils.crt(t % modulus1, modulus1, t % modulus2, modulus2));
+    }
+}